@@ -2,12 +2,11 @@ package com.backend.blog;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.backend.blog.config.AppConstants;
@@ -15,6 +14,7 @@ import com.backend.blog.entities.Role;
 import com.backend.blog.repositories.RoleRepo;
 
 @SpringBootApplication
+@EnableScheduling
 public class BlogAppApisApplication implements CommandLineRunner {
 	@Autowired
 	private PasswordEncoder passwordEncoder;
@@ -26,11 +26,6 @@ public class BlogAppApisApplication implements CommandLineRunner {
 		SpringApplication.run(BlogAppApisApplication.class, args);
 	}
 
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
-
 	@Override
 	public void run(String... args) throws Exception {
 
@@ -0,0 +1,23 @@
+package com.backend.blog.bloom;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// one insert or removal made on a node, broadcast so the other nodes' filters stay in step
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloomChange {
+
+	public enum Type {
+		EMAIL_ADDED, EMAIL_REMOVED, TITLE_ADDED, TITLE_REMOVED
+	}
+
+	private String originNodeId;
+	private Type type;
+	// already normalized (lower case)
+	private String value;
+}
@@ -0,0 +1,12 @@
+package com.backend.blog.bloom;
+
+import java.util.function.Consumer;
+
+// carries filter changes between app nodes, every node sees every change including its own
+public interface BloomChangeBus {
+
+	void publish(BloomChange change);
+
+	void subscribe(Consumer<BloomChange> listener);
+
+}
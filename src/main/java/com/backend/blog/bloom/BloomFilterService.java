@@ -1,28 +1,60 @@
 package com.backend.blog.bloom;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
-import com.backend.blog.entities.Post;
-import com.backend.blog.entities.User;
 import com.backend.blog.repositories.PostRepo;
 import com.backend.blog.repositories.UserRepo;
-import com.google.common.hash.BloomFilter;
-import com.google.common.hash.Funnels;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class BloomFilterService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterService.class);
 
+	private static final int SNAPSHOT_MAGIC = 0x424c4f4d;
+	private static final int SNAPSHOT_VERSION = 3;
+
 	@Value("${bloom.email.expectedInsertions:10000}")
 	private long emailExpectedInsertions;
 
@@ -35,38 +67,270 @@ public class BloomFilterService {
 	@Value("${bloom.post.fpp:0.0001}")
 	private double postFalsePositiveProbability;
 
+	// share of a stage's capacity after which the scalable filter appends a bigger stage
+	@Value("${bloom.scale.fillThreshold:0.9}")
+	private double fillThreshold;
+
+	@Value("${bloom.snapshot.enabled:true}")
+	private boolean snapshotEnabled;
+
+	@Value("${bloom.snapshot.path:bloom/bloom-filters.snapshot}")
+	private String snapshotPath;
+
+	// rows just below the watermark may have been saved before they were recorded, replay them again
+	@Value("${bloom.snapshot.replayOverlap:1000}")
+	private int replayOverlap;
+
 	@Autowired
 	private UserRepo userRepo;
 
 	@Autowired
 	private PostRepo postRepo;
 
-	private BloomFilter<CharSequence> emailFilter;
-	private BloomFilter<CharSequence> postTitleFilter;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private BloomChangeBus changeBus;
+
+	// identifies this instance on the change bus so it can skip its own broadcasts
+	@Value("${bloom.cluster.nodeId:${random.uuid}}")
+	private String nodeId;
+
+	@Value("${bloom.cluster.mode:local}")
+	private String clusterMode;
+
+	private volatile ScalableBloomFilter emailFilter;
+	private volatile ScalableBloomFilter postTitleFilter;
+
+	// filters being rebuilt, inserts made meanwhile go to both so the swap loses nothing
+	private volatile ScalableBloomFilter pendingEmailFilter;
+	private volatile ScalableBloomFilter pendingPostTitleFilter;
+
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private final AtomicLong emailsLoaded = new AtomicLong();
+	private final AtomicLong titlesLoaded = new AtomicLong();
+	private Timer rebuildTimer;
+
+	private CheckCounters emailChecks;
+	private CheckCounters titleChecks;
 
 	@PostConstruct
 	public void initFilters() {
-		this.emailFilter = BloomFilter.create(Funnels.unencodedCharsFunnel(), emailExpectedInsertions,
-				emailFalsePositiveProbability);
-		this.postTitleFilter = BloomFilter.create(Funnels.unencodedCharsFunnel(), postExpectedInsertions,
-				postFalsePositiveProbability);
+		meterRegistry.gauge("bloom.rebuild.rows", Tags.of("filter", "email"), emailsLoaded);
+		meterRegistry.gauge("bloom.rebuild.rows", Tags.of("filter", "title"), titlesLoaded);
+		meterRegistry.gauge("bloom.rebuild.running", rebuilding, running -> running.get() ? 1 : 0);
+		this.rebuildTimer = meterRegistry.timer("bloom.rebuild.duration");
+		registerFilterGauges("email", service -> service.emailFilter);
+		registerFilterGauges("title", service -> service.postTitleFilter);
+		this.emailChecks = new CheckCounters(meterRegistry, "email");
+		this.titleChecks = new CheckCounters(meterRegistry, "title");
+
+		if (!snapshotEnabled || !loadSnapshot()) {
+			rebuildFilters();
+		}
+		changeBus.subscribe(this::applyRemoteChange);
+	}
+
+	// streams scalar emails and titles in parallel read-only transactions and swaps the new filters in
+	public boolean rebuildFilters() {
+		if (!rebuilding.compareAndSet(false, true)) {
+			return false;
+		}
+		doRebuild();
+		return true;
+	}
+
+	// runs the rebuild off the request thread, false when one is already in progress
+	public boolean rebuildFiltersAsync() {
+		// claimed before the thread starts, two callers can't both get true and isRebuilding is right at once
+		if (!rebuilding.compareAndSet(false, true)) {
+			return false;
+		}
+		Thread thread = new Thread(() -> {
+			try {
+				doRebuild();
+			} catch (RuntimeException e) {
+				LOGGER.error("Bloom filter rebuild failed, keeping the current filters", e);
+			}
+		}, "bloom-rebuild");
+		thread.setDaemon(true);
+		try {
+			thread.start();
+		} catch (RuntimeException | Error e) {
+			rebuilding.set(false);
+			throw e;
+		}
+		return true;
+	}
+
+	// caller holds the rebuilding flag, it is released here
+	private void doRebuild() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Timer.Sample sample = Timer.start(meterRegistry);
+			emailsLoaded.set(0);
+			titlesLoaded.set(0);
+
+			// first stage sized for today's rows so a rebuild doesn't start out as a long chain
+			ScalableBloomFilter emails = new ScalableBloomFilter(Math.max(emailExpectedInsertions, userRepo.count()),
+					emailFalsePositiveProbability, fillThreshold);
+			ScalableBloomFilter titles = new ScalableBloomFilter(Math.max(postExpectedInsertions, postRepo.count()),
+					postFalsePositiveProbability, fillThreshold);
+			this.pendingEmailFilter = emails;
+			this.pendingPostTitleFilter = titles;
+
+			TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+			readOnly.setReadOnly(true);
+
+			CompletableFuture<Void> emailLoad = CompletableFuture.runAsync(() -> readOnly.executeWithoutResult(status -> {
+				try (Stream<String> stream = userRepo.streamAllEmails()) {
+					stream.filter(StringUtils::hasText).map(String::toLowerCase).forEach(email -> {
+						emails.put(email);
+						emailsLoaded.incrementAndGet();
+					});
+				}
+			}), executor);
+			CompletableFuture<Void> titleLoad = CompletableFuture.runAsync(() -> readOnly.executeWithoutResult(status -> {
+				try (Stream<String> stream = postRepo.streamAllTitles()) {
+					stream.filter(StringUtils::hasText).map(String::toLowerCase).forEach(title -> {
+						titles.put(title);
+						titlesLoaded.incrementAndGet();
+					});
+				}
+			}), executor);
+			CompletableFuture.allOf(emailLoad, titleLoad).join();
+
+			this.emailFilter = emails;
+			this.postTitleFilter = titles;
+			sample.stop(rebuildTimer);
+			LOGGER.info("Bloom filters rebuilt with {} user emails and {} post titles", emailsLoaded.get(),
+					titlesLoaded.get());
+		} finally {
+			this.pendingEmailFilter = null;
+			this.pendingPostTitleFilter = null;
+			executor.shutdown();
+			rebuilding.set(false);
+		}
+		saveSnapshot();
+	}
+
+	// changes travel between nodes best effort, a peer that was down or dropped a batch has the wrong bits
+	// until its filters are rebuilt from the database, which every clustered node does periodically
+	@Scheduled(fixedDelayString = "${bloom.cluster.reconcileIntervalMs:3600000}", initialDelayString = "${bloom.cluster.reconcileIntervalMs:3600000}")
+	public void reconcile() {
+		if ("http".equals(clusterMode)) {
+			rebuildFiltersAsync();
+		}
+	}
+
+	public boolean isRebuilding() {
+		return rebuilding.get();
+	}
+
+	// live false positive probability, fill of the active stage and chain length per filter
+	private void registerFilterGauges(String name, Function<BloomFilterService, ScalableBloomFilter> filter) {
+		Tags tags = Tags.of("filter", name);
+		meterRegistry.gauge("bloom.filter.fpp", tags, this, service -> gaugeValue(filter.apply(service),
+				ScalableBloomFilter::expectedFpp));
+		meterRegistry.gauge("bloom.filter.fill", tags, this, service -> gaugeValue(filter.apply(service),
+				ScalableBloomFilter::fillRatio));
+		meterRegistry.gauge("bloom.filter.stages", tags, this, service -> gaugeValue(filter.apply(service),
+				ScalableBloomFilter::stageCount));
+	}
+
+	private static double gaugeValue(ScalableBloomFilter filter, ToDoubleFunction<ScalableBloomFilter> value) {
+		return filter == null ? Double.NaN : value.applyAsDouble(filter);
+	}
+
+	// restores both filters from disk and replays only the rows added after the snapshot was taken
+	private boolean loadSnapshot() {
+		Path path = Paths.get(snapshotPath);
+		if (!Files.isRegularFile(path)) {
+			LOGGER.info("No bloom filter snapshot at {}, rebuilding from the database", path);
+			return false;
+		}
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+			DataInputStream data = new DataInputStream(in);
+			if (data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_VERSION
+					|| data.readLong() != emailExpectedInsertions || data.readDouble() != emailFalsePositiveProbability
+					|| data.readLong() != postExpectedInsertions || data.readDouble() != postFalsePositiveProbability) {
+				LOGGER.info("Bloom filter snapshot {} does not match the current configuration, rebuilding", path);
+				return false;
+			}
+			int emailWatermark = data.readInt();
+			int postWatermark = data.readInt();
+			ScalableBloomFilter emails = ScalableBloomFilter.readFrom(in, fillThreshold);
+			ScalableBloomFilter titles = ScalableBloomFilter.readFrom(in, fillThreshold);
 
-		loadExistingEmails();
-		loadExistingPostTitles();
+			List<String> newEmails = userRepo.findEmailsAfterId(Math.max(0, emailWatermark - replayOverlap));
+			newEmails.stream().filter(StringUtils::hasText).map(String::toLowerCase).forEach(emails::put);
+			List<String> newTitles = postRepo.findTitlesAfterPostId(Math.max(0, postWatermark - replayOverlap));
+			newTitles.stream().filter(StringUtils::hasText).map(String::toLowerCase).forEach(titles::put);
+
+			this.emailFilter = emails;
+			this.postTitleFilter = titles;
+			LOGGER.info("Bloom filters restored from {}, replayed {} emails and {} titles", path, newEmails.size(),
+					newTitles.size());
+			return true;
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Unable to read bloom filter snapshot {}, rebuilding from the database", path, e);
+			return false;
+		}
 	}
 
-	private void loadExistingEmails() {
-		List<User> users = userRepo.findAll();
-		users.stream().map(User::getEmail).filter(StringUtils::hasText).map(String::toLowerCase)
-				.forEach(emailFilter::put);
-		LOGGER.info("Bloom filter primed with {} user emails", users.size());
+	// written to a temp file and moved over the old snapshot so a crash never leaves a torn file
+	@Scheduled(fixedDelayString = "${bloom.snapshot.intervalMs:600000}", initialDelayString = "${bloom.snapshot.intervalMs:600000}")
+	@PreDestroy
+	public void saveSnapshot() {
+		if (!snapshotEnabled || emailFilter == null || postTitleFilter == null) {
+			return;
+		}
+		Path path = Paths.get(snapshotPath).toAbsolutePath();
+		try {
+			// watermarks are read before the bits so every row up to them is already in the filters
+			int emailWatermark = userRepo.findMaxId();
+			int postWatermark = postRepo.findMaxPostId();
+
+			Files.createDirectories(path.getParent());
+			Path temp = Files.createTempFile(path.getParent(), "bloom", ".tmp");
+			try {
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+					DataOutputStream data = new DataOutputStream(out);
+					data.writeInt(SNAPSHOT_MAGIC);
+					data.writeInt(SNAPSHOT_VERSION);
+					data.writeLong(emailExpectedInsertions);
+					data.writeDouble(emailFalsePositiveProbability);
+					data.writeLong(postExpectedInsertions);
+					data.writeDouble(postFalsePositiveProbability);
+					data.writeInt(emailWatermark);
+					data.writeInt(postWatermark);
+					data.flush();
+					emailFilter.writeTo(out);
+					postTitleFilter.writeTo(out);
+				}
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+			LOGGER.debug("Bloom filter snapshot written to {}", path);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Unable to write bloom filter snapshot {}", path, e);
+		}
 	}
 
-	private void loadExistingPostTitles() {
-		List<Post> posts = postRepo.findAll();
-		posts.stream().map(Post::getTitle).filter(StringUtils::hasText).map(String::toLowerCase)
-				.forEach(postTitleFilter::put);
-		LOGGER.info("Bloom filter primed with {} post titles", posts.size());
+	// bloom filter as a pre-check: a negative answer is final, a maybe is confirmed by the unique email index
+	public boolean isEmailRegistered(String email) {
+		if (!isEmailProbablyRegistered(email)) {
+			emailChecks.negative.increment();
+			return false;
+		}
+		boolean exists = userRepo.existsByEmail(email);
+		(exists ? emailChecks.truePositive : emailChecks.falsePositive).increment();
+		return exists;
 	}
 
 	public boolean isEmailProbablyRegistered(String email) {
@@ -80,7 +344,65 @@ public class BloomFilterService {
 		if (!StringUtils.hasText(email)) {
 			return;
 		}
-		emailFilter.put(email.toLowerCase());
+		String normalized = email.toLowerCase();
+		putEmail(normalized);
+		changeBus.publish(new BloomChange(nodeId, BloomChange.Type.EMAIL_ADDED, normalized));
+	}
+
+	// same two-tier check for titles, confirmed through the post title index
+	public boolean isPostTitleUsed(String title) {
+		if (!isPostTitleProbablyUsed(title)) {
+			titleChecks.negative.increment();
+			return false;
+		}
+		boolean exists = postRepo.existsByTitle(title);
+		(exists ? titleChecks.truePositive : titleChecks.falsePositive).increment();
+		return exists;
+	}
+
+	// bulk form of isPostTitleUsed: the filter screens every title, all maybes are confirmed in one query.
+	// returns the used titles lower cased
+	public Set<String> findUsedPostTitles(Collection<String> titles) {
+		List<String> candidates = new ArrayList<>();
+		for (String title : titles) {
+			if (isPostTitleProbablyUsed(title)) {
+				candidates.add(title);
+			} else {
+				titleChecks.negative.increment();
+			}
+		}
+		if (candidates.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		Set<String> used = postRepo.findTitlesIn(candidates).stream().map(String::toLowerCase)
+				.collect(Collectors.toSet());
+		for (String candidate : candidates) {
+			(used.contains(candidate.toLowerCase()) ? titleChecks.truePositive : titleChecks.falsePositive)
+					.increment();
+		}
+		return used;
+	}
+
+	// deleted or renamed away, see putEmail for why only the active filter is touched. only pass emails read
+	// from a row that existed, removing a value that was never put causes false negatives for others
+	public void removeEmail(String email) {
+		if (!StringUtils.hasText(email)) {
+			return;
+		}
+		String normalized = email.toLowerCase();
+		emailFilter.remove(normalized);
+		changeBus.publish(new BloomChange(nodeId, BloomChange.Type.EMAIL_REMOVED, normalized));
+	}
+
+	// same contract as removeEmail: the title of a post row that existed
+	public void removePostTitle(String title) {
+		if (!StringUtils.hasText(title)) {
+			return;
+		}
+		String normalized = title.toLowerCase();
+		postTitleFilter.remove(normalized);
+		changeBus.publish(new BloomChange(nodeId, BloomChange.Type.TITLE_REMOVED, normalized));
 	}
 
 	public boolean isPostTitleProbablyUsed(String title) {
@@ -94,7 +416,75 @@ public class BloomFilterService {
 		if (!StringUtils.hasText(title)) {
 			return;
 		}
-		postTitleFilter.put(title.toLowerCase());
+		String normalized = title.toLowerCase();
+		putPostTitle(normalized);
+		changeBus.publish(new BloomChange(nodeId, BloomChange.Type.TITLE_ADDED, normalized));
 	}
-}
 
+	// changes made on other nodes, applied locally without being published again
+	private void applyRemoteChange(BloomChange change) {
+		if (nodeId.equals(change.getOriginNodeId()) || change.getType() == null
+				|| !StringUtils.hasText(change.getValue())) {
+			return;
+		}
+		String value = change.getValue().toLowerCase();
+		switch (change.getType()) {
+		case EMAIL_ADDED:
+			putEmail(value);
+			break;
+		case EMAIL_REMOVED:
+			emailFilter.remove(value);
+			break;
+		case TITLE_ADDED:
+			putPostTitle(value);
+			break;
+		case TITLE_REMOVED:
+			postTitleFilter.remove(value);
+			break;
+		default:
+			break;
+		}
+	}
+
+	// inserts go to the filter being rebuilt as well so the swap loses nothing. the pending filter is
+	// written first and the active one read afterwards: a swap in between then either already holds the
+	// value or is the filter we write to. removals only touch the active filter - a rebuild in progress
+	// may not have streamed the value yet and removing something never put would cause false negatives
+	private void putEmail(String normalized) {
+		ScalableBloomFilter pending = pendingEmailFilter;
+		if (pending != null) {
+			pending.put(normalized);
+		}
+		emailFilter.put(normalized);
+	}
+
+	private void putPostTitle(String normalized) {
+		ScalableBloomFilter pending = pendingPostTitleFilter;
+		if (pending != null) {
+			pending.put(normalized);
+		}
+		postTitleFilter.put(normalized);
+	}
+
+	// how the filter's answers compared with the database, negatives never reach the database
+	private static final class CheckCounters {
+
+		private final Counter negative;
+		private final Counter truePositive;
+		private final Counter falsePositive;
+
+		private CheckCounters(MeterRegistry registry, String filter) {
+			this.negative = registry.counter("bloom.check", "filter", filter, "result", "negative");
+			this.truePositive = registry.counter("bloom.check", "filter", filter, "result", "true_positive");
+			this.falsePositive = registry.counter("bloom.check", "filter", filter, "result", "false_positive");
+			registry.gauge("bloom.check.false_positive_ratio", Tags.of("filter", filter), this,
+					CheckCounters::falsePositiveRatio);
+		}
+
+		// share of "maybe" answers the database turned down
+		private double falsePositiveRatio() {
+			double positives = truePositive.count() + falsePositive.count();
+			return positives == 0 ? 0 : falsePositive.count() / positives;
+		}
+	}
+}
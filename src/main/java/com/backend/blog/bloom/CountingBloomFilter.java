@@ -0,0 +1,166 @@
+package com.backend.blog.bloom;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+
+// bloom filter with 4 bit counters instead of bits so values can be removed again. sixteen counters are
+// packed per long and updated with compare-and-set, a counter that reaches 15 stays saturated because its
+// real count is no longer known. only remove values that were put, anything else causes false negatives
+public class CountingBloomFilter {
+
+	private static final int BITS_PER_COUNTER = 4;
+	private static final int COUNTERS_PER_WORD = Long.SIZE / BITS_PER_COUNTER;
+	private static final long COUNTER_MASK = 0xFL;
+
+	private static final HashFunction HASH = Hashing.murmur3_128();
+
+	private final long counterCount;
+	private final int hashFunctions;
+	private final AtomicLongArray words;
+	private final AtomicLong elementCount;
+
+	private CountingBloomFilter(long counterCount, int hashFunctions, long[] words, long elementCount) {
+		this.counterCount = counterCount;
+		this.hashFunctions = hashFunctions;
+		this.words = new AtomicLongArray(words);
+		this.elementCount = new AtomicLong(elementCount);
+	}
+
+	// same sizing formulas as guava's BloomFilter
+	public static CountingBloomFilter create(long expectedInsertions, double fpp) {
+		long n = Math.max(1, expectedInsertions);
+		long m = Math.max(COUNTERS_PER_WORD, (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+		int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+		int wordCount = (int) ((m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+		return new CountingBloomFilter(m, k, new long[wordCount], 0);
+	}
+
+	public boolean mightContain(CharSequence value) {
+		byte[] hash = HASH.hashUnencodedChars(value).asBytes();
+		long hash1 = lowerEight(hash);
+		long hash2 = upperEight(hash);
+		long combined = hash1;
+		for (int i = 0; i < hashFunctions; i++) {
+			if (counter(index(combined)) == 0) {
+				return false;
+			}
+			combined += hash2;
+		}
+		return true;
+	}
+
+	public void put(CharSequence value) {
+		byte[] hash = HASH.hashUnencodedChars(value).asBytes();
+		long hash1 = lowerEight(hash);
+		long hash2 = upperEight(hash);
+		long combined = hash1;
+		for (int i = 0; i < hashFunctions; i++) {
+			add(index(combined), 1);
+			combined += hash2;
+		}
+		elementCount.incrementAndGet();
+	}
+
+	// false when the value is certainly absent, nothing is touched then
+	public boolean remove(CharSequence value) {
+		if (!mightContain(value)) {
+			return false;
+		}
+		byte[] hash = HASH.hashUnencodedChars(value).asBytes();
+		long hash1 = lowerEight(hash);
+		long hash2 = upperEight(hash);
+		long combined = hash1;
+		for (int i = 0; i < hashFunctions; i++) {
+			add(index(combined), -1);
+			combined += hash2;
+		}
+		elementCount.updateAndGet(count -> Math.max(0, count - 1));
+		return true;
+	}
+
+	public long approximateElementCount() {
+		return elementCount.get();
+	}
+
+	public double expectedFpp() {
+		double n = elementCount.get();
+		return Math.pow(1 - Math.exp(-hashFunctions * n / counterCount), hashFunctions);
+	}
+
+	public long memoryBytes() {
+		return (long) words.length() * Long.BYTES;
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeLong(counterCount);
+		data.writeInt(hashFunctions);
+		data.writeLong(elementCount.get());
+		data.writeInt(words.length());
+		for (int i = 0; i < words.length(); i++) {
+			data.writeLong(words.get(i));
+		}
+		data.flush();
+	}
+
+	public static CountingBloomFilter readFrom(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		long counterCount = data.readLong();
+		int hashFunctions = data.readInt();
+		long elementCount = data.readLong();
+		int wordCount = data.readInt();
+		if (counterCount < 1 || hashFunctions < 1 || wordCount != (counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD) {
+			throw new IOException("Corrupt counting bloom filter header");
+		}
+		long[] words = new long[wordCount];
+		for (int i = 0; i < wordCount; i++) {
+			words[i] = data.readLong();
+		}
+		return new CountingBloomFilter(counterCount, hashFunctions, words, elementCount);
+	}
+
+	private long index(long combinedHash) {
+		return (combinedHash & Long.MAX_VALUE) % counterCount;
+	}
+
+	private int counter(long index) {
+		int word = (int) (index / COUNTERS_PER_WORD);
+		int shift = (int) (index % COUNTERS_PER_WORD) * BITS_PER_COUNTER;
+		return (int) ((words.get(word) >>> shift) & COUNTER_MASK);
+	}
+
+	private void add(long index, int delta) {
+		int word = (int) (index / COUNTERS_PER_WORD);
+		int shift = (int) (index % COUNTERS_PER_WORD) * BITS_PER_COUNTER;
+		while (true) {
+			long current = words.get(word);
+			long count = (current >>> shift) & COUNTER_MASK;
+			// saturated counters are sticky, empty ones can't go below zero
+			if (count == COUNTER_MASK || (delta < 0 && count == 0)) {
+				return;
+			}
+			long updated = delta > 0 ? current + (1L << shift) : current - (1L << shift);
+			if (words.compareAndSet(word, current, updated)) {
+				return;
+			}
+		}
+	}
+
+	private static long lowerEight(byte[] bytes) {
+		return Longs.fromBytes(bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
+	}
+
+	private static long upperEight(byte[] bytes) {
+		return Longs.fromBytes(bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8]);
+	}
+
+}
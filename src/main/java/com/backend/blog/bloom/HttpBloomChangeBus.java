@@ -0,0 +1,172 @@
+package com.backend.blog.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// broadcasts changes to the peers listed in bloom.cluster.peers. sending happens in batches on a
+// background thread so a slow or dead peer never delays a request. a failed send is retried a few times,
+// a peer that still misses changes converges at its next reconcile (BloomFilterService.reconcile)
+@Component
+@ConditionalOnProperty(name = "bloom.cluster.mode", havingValue = "http")
+public class HttpBloomChangeBus implements BloomChangeBus {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HttpBloomChangeBus.class);
+
+	public static final String CHANGES_PATH = "/api/v1/internal/bloom/changes";
+	public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+	@Value("${bloom.cluster.peers:}")
+	private String[] peers;
+
+	@Value("${bloom.cluster.token:}")
+	private String token;
+
+	@Value("${bloom.cluster.batchSize:200}")
+	private int batchSize;
+
+	@Value("${bloom.cluster.queueCapacity:10000}")
+	private int queueCapacity;
+
+	@Value("${bloom.cluster.maxAttempts:3}")
+	private int maxAttempts;
+
+	@Autowired
+	private RestTemplateBuilder restTemplateBuilder;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final List<Consumer<BloomChange>> listeners = new CopyOnWriteArrayList<>();
+
+	private RestTemplate restTemplate;
+	private BlockingQueue<BloomChange> outbox;
+	private Thread sender;
+	private Counter dropped;
+	private Counter failed;
+
+	@PostConstruct
+	public void start() {
+		this.restTemplate = restTemplateBuilder.setConnectTimeout(Duration.ofSeconds(2))
+				.setReadTimeout(Duration.ofSeconds(5)).build();
+		this.outbox = new LinkedBlockingQueue<>(queueCapacity);
+		this.dropped = meterRegistry.counter("bloom.cluster.changes", "result", "dropped");
+		this.failed = meterRegistry.counter("bloom.cluster.changes", "result", "failed");
+		this.sender = new Thread(this::sendLoop, "bloom-change-sender");
+		this.sender.setDaemon(true);
+		this.sender.start();
+	}
+
+	@PreDestroy
+	public void stop() {
+		sender.interrupt();
+	}
+
+	@Override
+	public void publish(BloomChange change) {
+		deliver(change);
+		if (!outbox.offer(change)) {
+			dropped.increment();
+			LOGGER.warn("Bloom change outbox is full, dropping {} change", change.getType());
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<BloomChange> listener) {
+		listeners.add(listener);
+	}
+
+	// changes posted by a peer
+	public void receive(List<BloomChange> changes) {
+		changes.forEach(this::deliver);
+	}
+
+	public boolean isTrusted(String presentedToken) {
+		return StringUtils.hasText(token) && presentedToken != null && MessageDigest
+				.isEqual(token.getBytes(StandardCharsets.UTF_8), presentedToken.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void deliver(BloomChange change) {
+		for (Consumer<BloomChange> listener : listeners) {
+			listener.accept(change);
+		}
+	}
+
+	private void sendLoop() {
+		List<BloomChange> batch = new ArrayList<>(batchSize);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(outbox.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			outbox.drainTo(batch, batchSize - 1);
+
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			headers.set(TOKEN_HEADER, token);
+			HttpEntity<List<BloomChange>> request = new HttpEntity<>(batch, headers);
+			for (String peer : peers) {
+				if (StringUtils.hasText(peer)) {
+					send(peer.trim(), request, batch.size());
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	private void send(String peer, HttpEntity<List<BloomChange>> request, int size) {
+		for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+			try {
+				restTemplate.postForEntity(peer + CHANGES_PATH, request, Void.class);
+				return;
+			} catch (RestClientException e) {
+				LOGGER.warn("Unable to send {} bloom changes to {} (attempt {}/{}): {}", size, peer, attempt,
+						maxAttempts, e.getMessage());
+				if (attempt < maxAttempts && !sleep(attempt * 500L)) {
+					break;
+				}
+			}
+		}
+		failed.increment(size);
+	}
+
+	private boolean sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			// shutting down, the send loop exits on the restored flag
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.backend.blog.bloom;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// single process bus: the default for one node, and shared by several services to stand in for a cluster in tests
+@Component
+@ConditionalOnProperty(name = "bloom.cluster.mode", havingValue = "local", matchIfMissing = true)
+public class InMemoryBloomChangeBus implements BloomChangeBus {
+
+	private final List<Consumer<BloomChange>> listeners = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publish(BloomChange change) {
+		for (Consumer<BloomChange> listener : listeners) {
+			listener.accept(change);
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<BloomChange> listener) {
+		listeners.add(listener);
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.backend.blog.bloom;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// chain of counting bloom filters that grows instead of degrading: inserts go to the newest stage and once it
+// crosses the fill threshold a stage with twice the capacity and half the fpp is appended, keeping the
+// compound fpp below 2 * fpp. the chain is an immutable list swapped by compare-and-set, lookups never lock
+public class ScalableBloomFilter {
+
+	private static final int GROWTH_FACTOR = 2;
+	private static final double TIGHTENING_RATIO = 0.5;
+
+	private final double fillThreshold;
+
+	private final AtomicReference<List<Stage>> stages;
+
+	public ScalableBloomFilter(long initialCapacity, double fpp, double fillThreshold) {
+		this.fillThreshold = fillThreshold;
+		this.stages = new AtomicReference<>(Collections.singletonList(new Stage(Math.max(1, initialCapacity), fpp)));
+	}
+
+	private ScalableBloomFilter(List<Stage> stages, double fillThreshold) {
+		this.fillThreshold = fillThreshold;
+		this.stages = new AtomicReference<>(Collections.unmodifiableList(stages));
+	}
+
+	public boolean mightContain(CharSequence value) {
+		List<Stage> chain = stages.get();
+		// newest stage first, it holds the most recent (and most often checked) values
+		for (int i = chain.size() - 1; i >= 0; i--) {
+			if (chain.get(i).filter.mightContain(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// removes a value that was put. it lives in exactly one stage, and that stage always reports it, so a
+	// single matching stage is the owner. when several stages match, the others are false positives and
+	// decrementing the wrong one would knock out other values there: the removal is skipped instead and the
+	// value stays a stale "maybe" that the database check turns down. false when nothing was removed
+	public boolean remove(CharSequence value) {
+		List<Stage> chain = stages.get();
+		Stage owner = null;
+		for (Stage stage : chain) {
+			if (stage.filter.mightContain(value)) {
+				if (owner != null) {
+					return false;
+				}
+				owner = stage;
+			}
+		}
+		return owner != null && owner.filter.remove(value);
+	}
+
+	public void put(CharSequence value) {
+		while (true) {
+			List<Stage> chain = stages.get();
+			Stage current = chain.get(chain.size() - 1);
+			if (!current.isFull(fillThreshold)) {
+				current.filter.put(value);
+				return;
+			}
+			List<Stage> grown = new ArrayList<>(chain);
+			grown.add(new Stage(current.capacity * GROWTH_FACTOR, current.fpp * TIGHTENING_RATIO));
+			// the loser of a concurrent grow simply retries against the winner's chain
+			stages.compareAndSet(chain, Collections.unmodifiableList(grown));
+		}
+	}
+
+	// probability that a value never inserted is reported present by any stage
+	public double expectedFpp() {
+		double allMiss = 1.0;
+		for (Stage stage : stages.get()) {
+			allMiss *= 1.0 - stage.filter.expectedFpp();
+		}
+		return 1.0 - allMiss;
+	}
+
+	// fill of the stage currently taking inserts, growth happens when it reaches the threshold
+	public double fillRatio() {
+		List<Stage> chain = stages.get();
+		Stage current = chain.get(chain.size() - 1);
+		return (double) current.filter.approximateElementCount() / current.capacity;
+	}
+
+	public int stageCount() {
+		return stages.get().size();
+	}
+
+	public long approximateElementCount() {
+		long count = 0;
+		for (Stage stage : stages.get()) {
+			count += stage.filter.approximateElementCount();
+		}
+		return count;
+	}
+
+	public long memoryBytes() {
+		long bytes = 0;
+		for (Stage stage : stages.get()) {
+			bytes += stage.filter.memoryBytes();
+		}
+		return bytes;
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		List<Stage> chain = stages.get();
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(chain.size());
+		for (Stage stage : chain) {
+			data.writeLong(stage.capacity);
+			data.writeDouble(stage.fpp);
+			data.flush();
+			stage.filter.writeTo(out);
+		}
+		data.flush();
+	}
+
+	public static ScalableBloomFilter readFrom(InputStream in, double fillThreshold) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int size = data.readInt();
+		if (size < 1) {
+			throw new IOException("Invalid scalable bloom filter stage count " + size);
+		}
+		List<Stage> chain = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			long capacity = data.readLong();
+			double fpp = data.readDouble();
+			chain.add(new Stage(capacity, fpp, CountingBloomFilter.readFrom(in)));
+		}
+		return new ScalableBloomFilter(chain, fillThreshold);
+	}
+
+	private static final class Stage {
+
+		private final long capacity;
+		private final double fpp;
+		private final CountingBloomFilter filter;
+
+		private Stage(long capacity, double fpp) {
+			this(capacity, fpp, CountingBloomFilter.create(capacity, fpp));
+		}
+
+		private Stage(long capacity, double fpp, CountingBloomFilter filter) {
+			this.capacity = capacity;
+			this.fpp = fpp;
+			this.filter = filter;
+		}
+
+		private boolean isFull(double fillThreshold) {
+			return filter.approximateElementCount() >= capacity * fillThreshold || filter.expectedFpp() > fpp;
+		}
+	}
+
+}
@@ -0,0 +1,275 @@
+package com.backend.blog.comments;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.exceptions.ServiceBusyException;
+import com.backend.blog.payloads.CommentDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Optional buffered path for comment creation. Requests only enqueue the
+ * comment and get a 202 with its client id back; a single writer thread
+ * inserts the queue in JDBC batches, one short transaction per batch.
+ * <p>
+ * The post is referenced by id and never loaded. Comments whose post is gone by
+ * the time the batch is written are dropped. A batch that keeps failing is
+ * written again row by row, so only the rows the database rejects are lost. A
+ * full queue is answered with {@link ServiceBusyException} so callers back off
+ * instead of piling up.
+ */
+@Service
+public class CommentWriteBehind {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CommentWriteBehind.class);
+
+	private static final String INSERT = "insert into comments (content, post_post_id, client_id) values (?, ?, ?)";
+
+	// comments.content is a varchar(255)
+	private static final int MAX_CONTENT_LENGTH = 255;
+
+	@Value("${comments.writeBehind.enabled:false}")
+	private boolean enabled;
+
+	@Value("${comments.writeBehind.queueCapacity:10000}")
+	private int queueCapacity;
+
+	@Value("${comments.writeBehind.batchSize:500}")
+	private int batchSize;
+
+	@Value("${comments.writeBehind.maxAttempts:3}")
+	private int maxAttempts;
+
+	@Value("${comments.writeBehind.retryAfterSeconds:2}")
+	private long retryAfterSeconds;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private BlockingQueue<PendingComment> queue;
+	private Thread writer;
+
+	private Counter accepted;
+	private Counter rejected;
+	private Counter written;
+	private Counter dropped;
+	private Counter failed;
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.accepted = meterRegistry.counter("comments.writeBehind", "result", "accepted");
+		this.rejected = meterRegistry.counter("comments.writeBehind", "result", "rejected");
+		this.written = meterRegistry.counter("comments.writeBehind", "result", "written");
+		this.dropped = meterRegistry.counter("comments.writeBehind", "result", "dropped");
+		this.failed = meterRegistry.counter("comments.writeBehind", "result", "failed");
+		meterRegistry.gauge("comments.writeBehind.queued", queue, BlockingQueue::size);
+		startWriter();
+	}
+
+	// a stopped writer can be started again, it picks up whatever is still queued
+	void startWriter() {
+		this.writer = new Thread(this::writeLoop, "comment-write-behind");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	// interrupting makes the writer flush what is still queued before it exits
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		if (writer != null) {
+			writer.interrupt();
+			writer.join(TimeUnit.SECONDS.toMillis(10));
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public CommentDto enqueue(CommentDto commentDto, Integer postId) {
+		if (!enabled) {
+			throw new IllegalStateException("Comment write-behind is disabled");
+		}
+		// checked here, a row the insert would reject is only noticed after the client got its 202
+		String content = commentDto.getContent();
+		if (content == null || content.isBlank()) {
+			throw new ApiException("Comment content must not be empty");
+		}
+		if (content.length() > MAX_CONTENT_LENGTH) {
+			throw new ApiException("Comment content must be at most " + MAX_CONTENT_LENGTH + " characters");
+		}
+		PendingComment pending = new PendingComment(postId, content, UUID.randomUUID().toString());
+		if (!queue.offer(pending)) {
+			rejected.increment();
+			throw new ServiceBusyException("Too many comments are waiting to be saved, retry shortly.",
+					retryAfterSeconds);
+		}
+		accepted.increment();
+
+		// the row id is not known yet, the client id identifies the comment until it is
+		CommentDto acceptedComment = new CommentDto();
+		acceptedComment.setContent(pending.getContent());
+		acceptedComment.setClientId(pending.getClientId());
+		return acceptedComment;
+	}
+
+	private void writeLoop() {
+		List<PendingComment> batch = new ArrayList<>(batchSize);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				break;
+			}
+			queue.drainTo(batch, batchSize - 1);
+			writeSafely(batch);
+			batch.clear();
+		}
+
+		while (queue.drainTo(batch, batchSize) > 0) {
+			writeSafely(batch);
+			batch.clear();
+		}
+	}
+
+	// there is only this one writer thread, nothing a batch throws may end it
+	private void writeSafely(List<PendingComment> batch) {
+		try {
+			write(batch);
+		} catch (RuntimeException e) {
+			failed.increment(batch.size());
+			LOGGER.error("Giving up on {} buffered comments", batch.size(), e);
+		}
+	}
+
+	private void write(List<PendingComment> batch) {
+		if (write(batch, maxAttempts)) {
+			return;
+		}
+		if (batch.size() == 1) {
+			giveUp(batch.get(0));
+			return;
+		}
+		// a single bad row fails the whole batch, written on their own the other rows still get in
+		LOGGER.warn("Writing {} buffered comments row by row", batch.size());
+		for (PendingComment pending : batch) {
+			if (Thread.currentThread().isInterrupted() || !write(Collections.singletonList(pending), 1)) {
+				giveUp(pending);
+			}
+		}
+	}
+
+	private boolean write(List<PendingComment> batch, int attempts) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		for (int attempt = 1; attempt <= attempts; attempt++) {
+			try {
+				Integer count = transaction.execute(status -> insert(batch));
+				written.increment(count);
+				dropped.increment(batch.size() - count);
+				return true;
+			} catch (DataAccessException | TransactionException e) {
+				// TransactionException: no connection to begin with, or the commit failed
+				LOGGER.warn("Writing {} buffered comments failed (attempt {}/{}): {}", batch.size(), attempt,
+						attempts, e.getMessage());
+				if (attempt < attempts && !sleep(attempt * 500L)) {
+					break;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void giveUp(PendingComment pending) {
+		failed.increment();
+		LOGGER.error("Giving up on buffered comment {} for post {}", pending.getClientId(), pending.getPostId());
+	}
+
+	private int insert(List<PendingComment> batch) {
+		// a post deleted after the comment was queued would fail the whole batch on its foreign key
+		Set<Integer> postIds = batch.stream().map(PendingComment::getPostId).collect(Collectors.toSet());
+		String placeholders = String.join(", ", Collections.nCopies(postIds.size(), "?"));
+		Set<Integer> existing = new HashSet<>(jdbcTemplate.queryForList(
+				"select post_id from posts where post_id in (" + placeholders + ")", Integer.class,
+				postIds.toArray()));
+		List<PendingComment> valid = batch.stream().filter(pending -> existing.contains(pending.getPostId()))
+				.collect(Collectors.toList());
+		if (valid.isEmpty()) {
+			return 0;
+		}
+
+		jdbcTemplate.batchUpdate(INSERT, valid, batchSize, (ps, pending) -> {
+			ps.setString(1, pending.getContent());
+			ps.setInt(2, pending.getPostId());
+			ps.setString(3, pending.getClientId());
+		});
+
+		// one counter update per post, in post id order to keep the row lock order stable
+		Map<Integer, Long> perPost = valid.stream()
+				.collect(Collectors.groupingBy(PendingComment::getPostId, TreeMap::new, Collectors.counting()));
+		perPost.forEach(counterService::adjustCommentCount);
+		return valid.size();
+	}
+
+	private boolean sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			// shutting down, do not hold up the exit with more retries
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class PendingComment {
+		private final Integer postId;
+		private final String content;
+		private final String clientId;
+	}
+
+}
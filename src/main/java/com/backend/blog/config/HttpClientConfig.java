@@ -0,0 +1,64 @@
+package com.backend.blog.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+// one pooled client for calls to third party APIs made while serving a request, so connections are
+// reused and a slow provider costs at most the timeouts below instead of a hung request thread
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${http.client.maxTotal:50}")
+    private int maxTotal;
+
+    @Value("${http.client.maxPerRoute:20}")
+    private int maxPerRoute;
+
+    @Value("${http.client.connectTimeoutMs:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${http.client.readTimeoutMs:5000}")
+    private int readTimeoutMs;
+
+    // waiting for a free pooled connection
+    @Value("${http.client.connectionRequestTimeoutMs:1000}")
+    private int connectionRequestTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        // the peer may have dropped a connection that sat idle in the pool
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient) {
+        return restTemplateBuilder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.backend.blog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.backend.blog.security.BoundedBCryptPasswordEncoder;
+import com.backend.blog.security.PasswordHashingExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// kept out of SecurityConfig, which itself depends on beans (oauth user service) that need the encoder
+@Configuration
+public class PasswordConfig {
+
+    // existing hashes with another cost are rehashed on their next login
+    @Value("${security.password.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor, MeterRegistry meterRegistry) {
+        return new BoundedBCryptPasswordEncoder(bcryptStrength, passwordHashingExecutor, meterRegistry);
+    }
+
+}
@@ -12,7 +12,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
@@ -58,6 +57,9 @@ public class SecurityConfig {
     @Autowired
     private OAuth2LoginFailureHandler oAuth2LoginFailureHandler;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
@@ -67,6 +69,13 @@ public class SecurityConfig {
                 .authorizeHttpRequests()
                 .antMatchers(PUBLIC_URLS)
                 .permitAll()
+                .antMatchers("/actuator/health")
+                .permitAll()
+                // peer to peer bloom filter sync, checked against the shared cluster token
+                .antMatchers(HttpMethod.POST, "/api/v1/internal/bloom/changes")
+                .permitAll()
+                .antMatchers("/actuator/**")
+                .hasRole("ADMIN")
                 .antMatchers(HttpMethod.GET)
                 .permitAll()
                 .anyRequest()
@@ -129,11 +138,6 @@ public class SecurityConfig {
     */
 
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
 	/*
 	@Bean
 	@Override
@@ -148,7 +152,8 @@ public class SecurityConfig {
 
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(this.customUserDetailService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(this.passwordEncoder);
+        provider.setUserDetailsPasswordService(this.customUserDetailService);
         return provider;
 
     }
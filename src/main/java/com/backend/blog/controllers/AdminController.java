@@ -0,0 +1,34 @@
+package com.backend.blog.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.payloads.ApiResponse;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+	@Autowired
+	private BloomFilterService bloomFilterService;
+
+	//ADMIN
+	// POST - rebuild the email / title bloom filters from the database without a restart
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping("/bloom/rebuild")
+	public ResponseEntity<ApiResponse> rebuildBloomFilters() {
+		if (!this.bloomFilterService.rebuildFiltersAsync()) {
+			return new ResponseEntity<ApiResponse>(new ApiResponse("Bloom filter rebuild already running", false),
+					HttpStatus.CONFLICT);
+		}
+		return new ResponseEntity<ApiResponse>(new ApiResponse("Bloom filter rebuild started", true),
+				HttpStatus.ACCEPTED);
+	}
+
+}
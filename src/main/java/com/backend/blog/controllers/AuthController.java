@@ -2,14 +2,15 @@ package com.backend.blog.controllers;
 
 import javax.validation.Valid;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -17,21 +18,22 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.backend.blog.entities.User;
 import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.payloads.ApiResponse;
 import com.backend.blog.payloads.JwtAuthRequest;
 import com.backend.blog.payloads.JwtAuthResponse;
+import com.backend.blog.payloads.RefreshTokenRequest;
 import com.backend.blog.payloads.UserDto;
-import com.backend.blog.security.JwtTokenHelper;
+import com.backend.blog.security.tokens.RefreshTokenService;
 import com.backend.blog.services.UserService;
 
 @RestController
 @RequestMapping("/api/v1/auth/")
 public class AuthController {
 
-	@Autowired
-	private JwtTokenHelper jwtTokenHelper;
+	private static final Logger LOGGER = LoggerFactory.getLogger(AuthController.class);
 
 	@Autowired
-	private UserDetailsService userDetailsService;
+	private RefreshTokenService refreshTokenService;
 
 	@Autowired
 	private AuthenticationManager authenticationManager;
@@ -39,16 +41,16 @@ public class AuthController {
 	@Autowired
 	private UserService userService;
 
+	// the password encoder hands only the bcrypt work to the bounded hashing pool, the user lookup and a
+	// rehash save stay on this thread
 	@PostMapping("/login")
-	public ResponseEntity<JwtAuthResponse> createToken(@RequestBody JwtAuthRequest request) throws Exception {
-		this.authenticate(request.getUsername(), request.getPassword());
-		UserDetails userDetails = this.userDetailsService.loadUserByUsername(request.getUsername());
-		String token = this.jwtTokenHelper.generateToken(userDetails);
-
-		JwtAuthResponse response = new JwtAuthResponse();
-		response.setToken(token);
+	public ResponseEntity<JwtAuthResponse> createToken(@RequestBody JwtAuthRequest request) {
+		// the provider already loaded the user to check the password, no second lookup
+		Authentication authentication = this.authenticate(request.getUsername(), request.getPassword());
 		// CustomUserDetailService returns our User entity, so this cast is safe here
-		User user = (User) userDetails;
+		User user = (User) authentication.getPrincipal();
+
+		JwtAuthResponse response = this.refreshTokenService.issue(user);
 		UserDto dto = new UserDto();
 		dto.setId(user.getId());
 		dto.setName(user.getName());
@@ -58,22 +60,36 @@ public class AuthController {
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
-	private void authenticate(String username, String password) throws Exception {
+	private Authentication authenticate(String username, String password) {
 
 		UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username,
 				password);
 
 		try {
 
-			this.authenticationManager.authenticate(authenticationToken);
+			return this.authenticationManager.authenticate(authenticationToken);
 
 		} catch (BadCredentialsException e) {
-			System.out.println("Invalid Detials !!");
+			LOGGER.debug("Invalid credentials for {}", username);
 			throw new ApiException("Invalid username or password !!");
 		}
 
 	}
 
+	// trades a refresh token for a new access / refresh pair, no password check involved
+	@PostMapping("/refresh")
+	public ResponseEntity<JwtAuthResponse> refreshToken(@RequestBody RefreshTokenRequest request) {
+		JwtAuthResponse response = this.refreshTokenService.refresh(request.getRefreshToken());
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	// access tokens stay valid until they expire, the refresh token family is revoked right away
+	@PostMapping("/logout")
+	public ResponseEntity<ApiResponse> logout(@RequestBody RefreshTokenRequest request) {
+		this.refreshTokenService.revoke(request.getRefreshToken());
+		return new ResponseEntity<>(new ApiResponse("Logged out successfully !!", true), HttpStatus.OK);
+	}
+
 	// register new user api
 
 	@PostMapping("/register")
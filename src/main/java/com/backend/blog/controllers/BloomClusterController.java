@@ -0,0 +1,39 @@
+package com.backend.blog.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backend.blog.bloom.BloomChange;
+import com.backend.blog.bloom.HttpBloomChangeBus;
+import com.backend.blog.payloads.ApiResponse;
+
+// node to node endpoint, authenticated by the shared cluster token instead of a user jwt
+@RestController
+@ConditionalOnProperty(name = "bloom.cluster.mode", havingValue = "http")
+public class BloomClusterController {
+
+	@Autowired
+	private HttpBloomChangeBus changeBus;
+
+	@PostMapping(HttpBloomChangeBus.CHANGES_PATH)
+	public ResponseEntity<ApiResponse> receiveChanges(
+			@RequestHeader(value = HttpBloomChangeBus.TOKEN_HEADER, required = false) String token,
+			@RequestBody List<BloomChange> changes) {
+		if (!this.changeBus.isTrusted(token)) {
+			return new ResponseEntity<ApiResponse>(new ApiResponse("Invalid cluster token", false),
+					HttpStatus.FORBIDDEN);
+		}
+		this.changeBus.receive(changes);
+		return new ResponseEntity<ApiResponse>(new ApiResponse("Applied " + changes.size() + " changes", true),
+				HttpStatus.OK);
+	}
+
+}
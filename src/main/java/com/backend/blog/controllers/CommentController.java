@@ -4,14 +4,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.blog.comments.CommentWriteBehind;
+import com.backend.blog.config.AppConstants;
 import com.backend.blog.payloads.ApiResponse;
 import com.backend.blog.payloads.CommentDto;
+import com.backend.blog.payloads.CommentResponse;
 import com.backend.blog.services.CommentService;
 
 @RestController
@@ -21,13 +26,31 @@ public class CommentController {
 	@Autowired
 	private CommentService commentService;
 
+	@Autowired
+	private CommentWriteBehind commentWriteBehind;
+
 	@PostMapping("/post/{postId}/comments")
 	public ResponseEntity<CommentDto> createComment(@RequestBody CommentDto comment, @PathVariable Integer postId) {
 
+		// buffered mode answers before the insert, the client id identifies the comment
+		if (this.commentWriteBehind.isEnabled()) {
+			return new ResponseEntity<CommentDto>(this.commentWriteBehind.enqueue(comment, postId), HttpStatus.ACCEPTED);
+		}
+
 		CommentDto createComment = this.commentService.createComment(comment, postId);
 		return new ResponseEntity<CommentDto>(createComment, HttpStatus.CREATED);
 	}
 
+	// keyset paged, pass nextCursor back as ?after= for the next page
+	@GetMapping("/post/{postId}/comments")
+	public ResponseEntity<CommentResponse> getCommentsByPost(@PathVariable Integer postId,
+			@RequestParam(value = "after", required = false) Integer after,
+			@RequestParam(value = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize) {
+
+		CommentResponse comments = this.commentService.getCommentsByPost(postId, after, pageSize);
+		return new ResponseEntity<CommentResponse>(comments, HttpStatus.OK);
+	}
+
 	@DeleteMapping("/comments/{commentId}")
 	public ResponseEntity<ApiResponse> deleteComment(@PathVariable Integer commentId) {
 
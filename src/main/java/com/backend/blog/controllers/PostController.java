@@ -2,17 +2,17 @@ package com.backend.blog.controllers;
 
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.hibernate.engine.jdbc.StreamUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -25,10 +25,15 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.backend.blog.config.AppConstants;
+import com.backend.blog.images.ImageDeliveryService;
+import com.backend.blog.images.ImageVariant;
+import com.backend.blog.images.ImageVariantService;
 import com.backend.blog.payloads.ApiResponse;
 import com.backend.blog.payloads.PostDto;
+import com.backend.blog.payloads.PostImportReport;
 import com.backend.blog.payloads.PostResponse;
 import com.backend.blog.services.FileService;
+import com.backend.blog.services.PostImportService;
 import com.backend.blog.services.PostService;
 
 @RestController
@@ -38,9 +43,18 @@ public class PostController {
 	@Autowired
 	private PostService postService;
 
+	@Autowired
+	private PostImportService postImportService;
+
 	@Autowired
 	private FileService fileService;
 
+	@Autowired
+	private ImageDeliveryService imageDeliveryService;
+
+	@Autowired
+	private ImageVariantService imageVariantService;
+
 	@Value("${project.image}")
 	private String path;
 //	create
@@ -52,6 +66,14 @@ public class PostController {
 		return new ResponseEntity<PostDto>(createPost, HttpStatus.CREATED);
 	}
 
+	// bulk import for migrations, one post per NDJSON line, read as a stream
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping(value = "/posts/import", consumes = "application/x-ndjson")
+	public ResponseEntity<PostImportReport> importPosts(HttpServletRequest request) throws IOException {
+		PostImportReport report = this.postImportService.importPosts(request.getInputStream());
+		return new ResponseEntity<PostImportReport>(report, HttpStatus.OK);
+	}
+
 	// get by user
 
 	@GetMapping("/user/{userId}/posts")
@@ -79,9 +101,12 @@ public class PostController {
 			@RequestParam(value = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
 			@RequestParam(value = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
 			@RequestParam(value = "sortBy", defaultValue = AppConstants.SORT_BY, required = false) String sortBy,
-			@RequestParam(value = "sortDir", defaultValue = AppConstants.SORT_DIR, required = false) String sortDir) {
+			@RequestParam(value = "sortDir", defaultValue = AppConstants.SORT_DIR, required = false) String sortDir,
+			@RequestParam(value = "after", required = false) String after) {
 
-		PostResponse postResponse = this.postService.getAllPost(pageNumber, pageSize, sortBy, sortDir);
+		// ?after= switches to cursor mode, an empty value asks for the first page
+		PostResponse postResponse = after != null ? this.postService.getAllPostAfter(after, pageSize, sortBy, sortDir)
+				: this.postService.getAllPost(pageNumber, pageSize, sortBy, sortDir);
 		return new ResponseEntity<PostResponse>(postResponse, HttpStatus.OK);
 	}
 
@@ -114,9 +139,11 @@ public class PostController {
 
 	// search
 	@GetMapping("/posts/search/{keywords}")
-	public ResponseEntity<List<PostDto>> searchPostByTitle(@PathVariable("keywords") String keywords) {
-		List<PostDto> result = this.postService.searchPosts(keywords);
-		return new ResponseEntity<List<PostDto>>(result, HttpStatus.OK);
+	public ResponseEntity<PostResponse> searchPostByTitle(@PathVariable("keywords") String keywords,
+			@RequestParam(value = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
+			@RequestParam(value = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize) {
+		PostResponse result = this.postService.searchPosts(keywords, pageNumber, pageSize);
+		return new ResponseEntity<PostResponse>(result, HttpStatus.OK);
 	}
 
 	// post image upload
@@ -136,15 +163,27 @@ public class PostController {
 	
 
     //method to serve files
-    @GetMapping(value = "/post/image/{imageName}",produces = MediaType.IMAGE_JPEG_VALUE)
+    @GetMapping("/post/image/{imageName}")
     public void downloadImage(
             @PathVariable("imageName") String imageName,
+            @RequestParam(value = "size", required = false) String size,
+            HttpServletRequest request,
             HttpServletResponse response
     ) throws IOException {
 
-        InputStream resource = this.fileService.getResource(path, imageName);
-        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
-        StreamUtils.copy(resource,response.getOutputStream())   ;
+        ImageVariant variant = ImageVariant.fromParam(size);
+        if (variant == null) {
+            this.imageDeliveryService.serve(path, imageName, request, response);
+            return;
+        }
+        Path variantFile = this.imageVariantService.resolve(path, imageName, variant);
+        if (variantFile != null) {
+            this.imageDeliveryService.serve(variantFile.getParent().toString(), variantFile.getFileName().toString(),
+                    request, response);
+            return;
+        }
+        // until the variant is generated the original is served, revalidated so the variant replaces it
+        this.imageDeliveryService.serveFallback(path, imageName, request, response);
 
     }
 
@@ -5,11 +5,11 @@ import java.util.List;
 
 import javax.validation.Valid;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,9 +21,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.backend.blog.entities.User;
 import com.backend.blog.exceptions.ResourceNotFoundException;
+import com.backend.blog.mappers.DtoMapper;
 import com.backend.blog.payloads.ApiResponse;
 import com.backend.blog.payloads.UserDto;
 import com.backend.blog.repositories.UserRepo;
+import com.backend.blog.security.JwtPrincipal;
 import com.backend.blog.services.UserService;
 
 @RestController
@@ -37,7 +39,7 @@ public class UserController {
 	private UserRepo userRepo;
 
 	@Autowired
-	private ModelMapper mapper;
+	private DtoMapper mapper;
 
 	// POST-create user
 	@PostMapping("/")
@@ -78,9 +80,18 @@ public class UserController {
 	// GET - currently authenticated user
 	@GetMapping("/me")
 	public ResponseEntity<UserDto> getCurrentUser(Principal principal) {
-		User user = this.userRepo.findByEmail(principal.getName())
-				.orElseThrow(() -> new ResourceNotFoundException("User", " email : " + principal.getName(), 0));
-		return ResponseEntity.ok(this.mapper.map(user, UserDto.class));
+		User user;
+		if (principal instanceof Authentication
+				&& ((Authentication) principal).getPrincipal() instanceof JwtPrincipal) {
+			// the filter's principal is an id / email / roles snapshot, the user comes from the second level cache
+			int userId = ((JwtPrincipal) ((Authentication) principal).getPrincipal()).getId();
+			user = this.userRepo.findById(userId)
+					.orElseThrow(() -> new ResourceNotFoundException("User", " Id ", userId));
+		} else {
+			user = this.userRepo.findByEmail(principal.getName())
+					.orElseThrow(() -> new ResourceNotFoundException("User", " email : " + principal.getName(), 0));
+		}
+		return ResponseEntity.ok(this.mapper.toUserDto(user));
 	}
 
 }
@@ -0,0 +1,157 @@
+package com.backend.blog.counters;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.blog.entities.Category;
+import com.backend.blog.entities.Post;
+import com.backend.blog.entities.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Maintains the denormalized counters posts.comment_count, categories.post_count
+ * and users.post_count so listings never have to count rows.
+ * <p>
+ * Counters are moved with a single {@code set x = x + ?} statement, so concurrent
+ * writers never lose an update, and only the touched entity is evicted from the
+ * second level cache (a bulk JPQL update would drop the whole region). Anything
+ * that slips through, failed transactions, cascades or manual SQL, is repaired by
+ * {@link #reconcile()}.
+ */
+@Service
+public class CounterService {
+
+	private static final Logger log = LoggerFactory.getLogger(CounterService.class);
+
+	private static final String RECONCILE_COMMENTS = "update posts p set comment_count = "
+			+ "(select count(*) from comments c where c.post_post_id = p.post_id) "
+			+ "where p.post_id > ? and p.post_id <= ? "
+			+ "and p.comment_count <> (select count(*) from comments c where c.post_post_id = p.post_id)";
+
+	private static final String RECONCILE_CATEGORIES = "update categories c set post_count = "
+			+ "(select count(*) from posts p where p.category_id = c.category_id) "
+			+ "where c.category_id > ? and c.category_id <= ? "
+			+ "and c.post_count <> (select count(*) from posts p where p.category_id = c.category_id)";
+
+	private static final String RECONCILE_USERS = "update users u set post_count = "
+			+ "(select count(*) from posts p where p.user_id = u.id) "
+			+ "where u.id > ? and u.id <= ? "
+			+ "and u.post_count <> (select count(*) from posts p where p.user_id = u.id)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// rows per reconciliation statement, keeps row locks short on big tables
+	@Value("${counters.reconcile.batchSize:1000}")
+	private int reconcileBatchSize;
+
+	public void adjustCommentCount(Integer postId, long delta) {
+		this.jdbcTemplate.update("update posts set comment_count = comment_count + ? where post_id = ?", delta,
+				postId);
+		this.evictAfterCommit(Post.class, postId);
+	}
+
+	public void adjustCategoryPostCount(Integer categoryId, long delta) {
+		this.jdbcTemplate.update("update categories set post_count = post_count + ? where category_id = ?", delta,
+				categoryId);
+		this.evictAfterCommit(Category.class, categoryId);
+	}
+
+	public void adjustUserPostCount(Integer userId, long delta) {
+		this.jdbcTemplate.update("update users set post_count = post_count + ? where id = ?", delta, userId);
+		this.evictAfterCommit(User.class, userId);
+	}
+
+	// call before a user is deleted, its posts go with it and leave their categories
+	public void releasePostsOfUser(Integer userId) {
+		int updated = this.jdbcTemplate.update("update categories c set post_count = post_count - "
+				+ "(select count(*) from posts p where p.user_id = ? and p.category_id = c.category_id) "
+				+ "where c.category_id in (select p.category_id from posts p where p.user_id = ?)", userId, userId);
+		if (updated > 0) {
+			this.evictAfterCommit(Category.class, null);
+		}
+	}
+
+	// call before a category is deleted, its posts go with it and leave their authors
+	public void releasePostsOfCategory(Integer categoryId) {
+		int updated = this.jdbcTemplate.update("update users u set post_count = post_count - "
+				+ "(select count(*) from posts p where p.category_id = ? and p.user_id = u.id) "
+				+ "where u.id in (select p.user_id from posts p where p.category_id = ?)", categoryId, categoryId);
+		if (updated > 0) {
+			this.evictAfterCommit(User.class, null);
+		}
+	}
+
+	/**
+	 * Recomputes every counter from the source rows and fixes the ones that
+	 * drifted. Runs in id ranges, each range is its own short statement.
+	 *
+	 * @return number of rows repaired
+	 */
+	@Scheduled(fixedDelayString = "${counters.reconcile.intervalMs:3600000}", initialDelayString = "${counters.reconcile.initialDelayMs:60000}")
+	public int reconcile() {
+		int repaired = this.reconcile("posts", "post_id", RECONCILE_COMMENTS, Post.class)
+				+ this.reconcile("categories", "category_id", RECONCILE_CATEGORIES, Category.class)
+				+ this.reconcile("users", "id", RECONCILE_USERS, User.class);
+		if (repaired > 0) {
+			log.info("Counter reconciliation repaired {} rows", repaired);
+		}
+		return repaired;
+	}
+
+	private int reconcile(String table, String idColumn, String sql, Class<?> entity) {
+		Integer maxId = this.jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Integer.class);
+		if (maxId == null) {
+			return 0;
+		}
+
+		int repaired = 0;
+		for (int from = 0; from < maxId; from += reconcileBatchSize) {
+			repaired += this.jdbcTemplate.update(sql, from, Math.min(from + reconcileBatchSize, maxId));
+		}
+		if (repaired > 0) {
+			this.meterRegistry.counter("counters.reconciled", "table", table).increment(repaired);
+			this.entityManagerFactory.getCache().evict(entity);
+		}
+		return repaired;
+	}
+
+	// evicting before commit would let another session cache the old value again
+	private void evictAfterCommit(Class<?> entity, Object id) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.evict(entity, id);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				CounterService.this.evict(entity, id);
+			}
+		});
+	}
+
+	private void evict(Class<?> entity, Object id) {
+		if (id == null) {
+			this.entityManagerFactory.getCache().evict(entity);
+		} else {
+			this.entityManagerFactory.getCache().evict(entity, id);
+		}
+	}
+
+}
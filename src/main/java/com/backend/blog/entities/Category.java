@@ -3,6 +3,7 @@ package com.backend.blog.entities;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -13,12 +14,20 @@ import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
 @Table(name="categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @Getter
 @Setter
@@ -33,6 +42,13 @@ public class Category {
 	
 	@Column(name="description")
 	private String categoryDescription;
+
+	// maintained by CounterService, never written through the entity. read back after every save so the
+	// second level cache entry the save leaves behind carries the current value
+	@ColumnDefault("0")
+	@Generated(GenerationTime.ALWAYS)
+	@Column(name = "post_count", nullable = false, insertable = false, updatable = false)
+	private long postCount;
 	
 	
 	@OneToMany(mappedBy = "category",cascade = CascadeType.ALL,fetch = FetchType.LAZY)
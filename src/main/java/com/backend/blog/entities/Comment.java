@@ -1,9 +1,11 @@
 package com.backend.blog.entities;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
@@ -11,7 +13,8 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
-@Table(name = "comments")
+// per post listing and previews seek on (post, id)
+@Table(name = "comments", indexes = @Index(name = "idx_comments_post_id", columnList = "post_post_id, id"))
 @Getter
 @Setter
 public class Comment {
@@ -22,6 +25,10 @@ public class Comment {
 
 	private String content;
 
+	// handed to the client when the comment is accepted, before the row id exists
+	@Column(name = "client_id", length = 36, unique = true)
+	private String clientId;
+
 	@ManyToOne
 	private Post post;
 
@@ -4,23 +4,34 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = { @Index(name = "idx_posts_title_id", columnList = "post_title, postId"),
+		@Index(name = "idx_posts_added_date_id", columnList = "addedDate, postId") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,6 +57,13 @@ public class Post {
 
 	@ManyToOne
 	private User user;
+
+	// maintained by CounterService, never written through the entity. read back after every save so the
+	// second level cache entry the save leaves behind carries the current value
+	@ColumnDefault("0")
+	@Generated(GenerationTime.ALWAYS)
+	@Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+	private long commentCount;
 	
 	
 	@OneToMany(mappedBy = "post",cascade = CascadeType.ALL)
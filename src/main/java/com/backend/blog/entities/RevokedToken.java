@@ -0,0 +1,29 @@
+package com.backend.blog.entities;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+// rows of DatabaseTokenRevocationStore: "jti:<id>" for spent refresh tokens, "fam:<id>" for revoked families
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+@Getter
+@Setter
+public class RevokedToken {
+
+	@Id
+	@Column(name = "token_key", length = 64)
+	private String tokenKey;
+
+	// purged once every token it covers has expired
+	@Column(name = "expires_at", nullable = false)
+	private Date expiresAt;
+
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -22,6 +23,12 @@ import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -32,6 +39,8 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @Getter
 @Setter
@@ -54,7 +63,10 @@ public class User implements UserDetails {
 	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private List<Post> posts = new ArrayList<>();
 
+	// batch loaded so a page of posts resolves the roles of all its authors in one select
 	@ManyToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@BatchSize(size = 50)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	@JoinTable(name = "user_role", joinColumns = @JoinColumn(name = "user", referencedColumnName = "id"), inverseJoinColumns = @JoinColumn(name = "role", referencedColumnName = "id"))
 	private Set<Role> roles = new HashSet<>();
 
@@ -68,6 +80,13 @@ public class User implements UserDetails {
 	@Column(name = "email_verified")
 	private boolean emailVerified = false;
 
+	// maintained by CounterService, never written through the entity. read back after every save so the
+	// second level cache entry the save leaves behind carries the current value
+	@ColumnDefault("0")
+	@Generated(GenerationTime.ALWAYS)
+	@Column(name = "post_count", nullable = false, insertable = false, updatable = false)
+	private long postCount;
+
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
 
@@ -3,6 +3,7 @@ package com.backend.blog.exceptions;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -42,5 +43,13 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<ApiResponse>(apiResponse, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(ServiceBusyException.class)
+	public ResponseEntity<ApiResponse> handleServiceBusyException(ServiceBusyException ex) {
+		ApiResponse apiResponse = new ApiResponse(ex.getMessage(), false);
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+		return new ResponseEntity<ApiResponse>(apiResponse, headers, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
 
 }
@@ -0,0 +1,17 @@
+package com.backend.blog.exceptions;
+
+// thrown when a bounded resource is saturated, answered with 503 and a Retry-After
+public class ServiceBusyException extends RuntimeException {
+
+	private final long retryAfterSeconds;
+
+	public ServiceBusyException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+}
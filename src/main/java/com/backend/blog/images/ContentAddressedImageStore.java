@@ -0,0 +1,161 @@
+package com.backend.blog.images;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.backend.blog.repositories.PostRepo;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+
+@Service
+public class ContentAddressedImageStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ContentAddressedImageStore.class);
+
+	// <sha-256 hex>.<extension>, anything else in the directory (legacy uuid uploads) is left alone
+	private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,10}");
+
+	private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+
+	@Value("${project.image.contentAddressed:false}")
+	private boolean enabled;
+
+	@Value("${project.image}")
+	private String directory;
+
+	@Value("${project.image.gc.graceMinutes:60}")
+	private long graceMinutes;
+
+	@Autowired
+	private PostRepo postRepo;
+
+	@Autowired
+	private ImageVariantService imageVariantService;
+
+	// a dedup hit and the sweep must not interleave on the same blob
+	private final Object blobLock = new Object();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// returns the digest based name, identical uploads map to one file which is written only once
+	public String store(String path, MultipartFile file, String extension) throws IOException {
+		String normalizedExtension = extension.toLowerCase(Locale.ROOT);
+		if (!EXTENSION.matcher(normalizedExtension).matches()) {
+			throw new IOException("Invalid file extension " + extension);
+		}
+
+		// first pass only reads, a duplicate upload never touches the disk for writing
+		String fileName = digest(file) + normalizedExtension;
+		Path target = Paths.get(path, fileName);
+
+		synchronized (blobLock) {
+			if (Files.isRegularFile(target)) {
+				try {
+					// restart the grace period so the sweep can't remove it before the post points at it
+					Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+					return fileName;
+				} catch (NoSuchFileException e) {
+					LOGGER.debug("Blob {} was collected concurrently, storing it again", fileName);
+				}
+			}
+		}
+
+		Path temp = Files.createTempFile(Paths.get(path), "upload", ".tmp");
+		try {
+			try (InputStream inputStream = file.getInputStream()) {
+				Files.copy(inputStream, temp, StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+		this.imageVariantService.generateAsync(path, fileName);
+		return fileName;
+	}
+
+	// deletes blobs no post references anymore, blobs younger than the grace period are kept
+	@Scheduled(fixedDelayString = "${project.image.gc.intervalMs:3600000}", initialDelayString = "${project.image.gc.initialDelayMs:600000}")
+	public void collectGarbage() {
+		if (!enabled) {
+			return;
+		}
+		Path root = Paths.get(directory);
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+
+		Set<String> referenced = new HashSet<>(this.postRepo.findReferencedImageNames());
+		long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(graceMinutes);
+		int deleted = 0;
+
+		try (DirectoryStream<Path> blobs = Files.newDirectoryStream(root,
+				entry -> BLOB_NAME.matcher(entry.getFileName().toString()).matches())) {
+			for (Path blob : blobs) {
+				String name = blob.getFileName().toString();
+				if (referenced.contains(name)) {
+					continue;
+				}
+				try {
+					synchronized (blobLock) {
+						if (Files.getLastModifiedTime(blob).toMillis() > cutoff) {
+							continue;
+						}
+						Files.deleteIfExists(blob);
+					}
+					for (ImageVariant variant : ImageVariant.values()) {
+						Files.deleteIfExists(this.imageVariantService.variantPath(directory, name, variant));
+					}
+					deleted++;
+				} catch (IOException e) {
+					LOGGER.warn("Unable to collect image blob {}", name, e);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Image garbage collection failed", e);
+			return;
+		}
+
+		LOGGER.info("Image garbage collection removed {} unreferenced blobs, {} still referenced", deleted,
+				referenced.size());
+	}
+
+	private String digest(MultipartFile file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+		try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+			ByteStreams.exhaust(inputStream);
+		}
+		return BaseEncoding.base16().lowerCase().encode(digest.digest());
+	}
+
+}
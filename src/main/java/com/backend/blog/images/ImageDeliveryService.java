@@ -0,0 +1,162 @@
+package com.backend.blog.images;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+@Service
+public class ImageDeliveryService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImageDeliveryService.class);
+
+	// request attributes understood by Tomcat's NIO/APR connectors
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	// uploaded images get random names and are never rewritten, so they can be cached for good
+	@Value("${project.image.cacheControl:public, max-age=31536000, immutable}")
+	private String cacheControl;
+
+	// the original standing in for a variant that is not generated yet must not be cached under the variant url
+	@Value("${project.image.fallbackCacheControl:no-cache}")
+	private String fallbackCacheControl;
+
+	@Value("${project.image.sendfile:true}")
+	private boolean sendfileEnabled;
+
+	public void serve(String directory, String fileName, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		serve(directory, fileName, cacheControl, request, response);
+	}
+
+	public void serveFallback(String directory, String fileName, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		serve(directory, fileName, fallbackCacheControl, request, response);
+	}
+
+	private void serve(String directory, String fileName, String cacheControl, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		Path file = resolve(directory, fileName);
+		if (file == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long length = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+		response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+		// sets ETag / Last-Modified and answers 304 when the client copy is still current
+		if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+			return;
+		}
+
+		MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		response.setContentType(mediaType.toString());
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		long start = 0;
+		long end = length - 1;
+
+		HttpRange range = requestedRange(request, etag);
+		if (range != null) {
+			start = range.getRangeStart(length);
+			end = range.getRangeEnd(length);
+			if (start >= length || start > end) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+		}
+
+		long count = end - start + 1;
+		response.setContentLengthLong(count);
+
+		if ("HEAD".equals(request.getMethod()) || count == 0) {
+			return;
+		}
+
+		if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			// the connector writes the file straight from the page cache to the socket
+			request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, end + 1);
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			long remaining = count;
+			while (remaining > 0) {
+				long written = channel.transferTo(position, remaining, out);
+				if (written <= 0) {
+					break;
+				}
+				position += written;
+				remaining -= written;
+			}
+		}
+	}
+
+	// keeps lookups inside the image directory and ignores anything that is not a plain file
+	private Path resolve(String directory, String fileName) {
+		if (!StringUtils.hasText(fileName)) {
+			return null;
+		}
+		Path base = Paths.get(directory).toAbsolutePath().normalize();
+		Path file = base.resolve(fileName).normalize();
+		if (!file.startsWith(base) || !Files.isRegularFile(file)) {
+			return null;
+		}
+		return file;
+	}
+
+	// only a single range is honoured, multi-range and stale If-Range requests get the full image
+	private HttpRange requestedRange(HttpServletRequest request, String etag) {
+		String header = request.getHeader(HttpHeaders.RANGE);
+		if (!StringUtils.hasText(header)) {
+			return null;
+		}
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (ifRange != null && !ifRange.equals(etag)) {
+			return null;
+		}
+		try {
+			List<HttpRange> ranges = HttpRange.parseRanges(header);
+			return ranges.size() == 1 ? ranges.get(0) : null;
+		} catch (IllegalArgumentException e) {
+			LOGGER.debug("Ignoring malformed Range header {}", header);
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.backend.blog.images;
+
+import java.util.Locale;
+
+import com.backend.blog.exceptions.ApiException;
+
+public enum ImageVariant {
+
+	THUMB(160), MEDIUM(640);
+
+	private final int maxWidth;
+
+	ImageVariant(int maxWidth) {
+		this.maxWidth = maxWidth;
+	}
+
+	public int getMaxWidth() {
+		return maxWidth;
+	}
+
+	public String directoryName() {
+		return name().toLowerCase(Locale.ROOT);
+	}
+
+	// null means the original upload was asked for
+	public static ImageVariant fromParam(String size) {
+		if (size == null || size.isEmpty() || "original".equalsIgnoreCase(size)) {
+			return null;
+		}
+		for (ImageVariant variant : values()) {
+			if (variant.name().equalsIgnoreCase(size)) {
+				return variant;
+			}
+		}
+		throw new ApiException("Unknown image size " + size + ", expected thumb, medium or original");
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.backend.blog.images;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ImageVariantService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImageVariantService.class);
+
+	private static final String VARIANTS_DIRECTORY = "variants";
+
+	@Value("${project.image.variants.threads:2}")
+	private int threads;
+
+	@Value("${project.image.variants.queueCapacity:100}")
+	private int queueCapacity;
+
+	@Value("${project.image.variants.jpegQuality:0.8}")
+	private float jpegQuality;
+
+	// checked against the header before decoding, a small file can still declare a huge canvas
+	@Value("${project.image.variants.maxPixels:40000000}")
+	private long maxPixels;
+
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	public void initExecutor() {
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	// queued after the upload is stored, a full queue only means the original is served a bit longer
+	public void generateAsync(String directory, String fileName) {
+		try {
+			executor.execute(() -> generate(directory, fileName));
+		} catch (RejectedExecutionException e) {
+			LOGGER.warn("Image variant queue is full, skipping variants for {}", fileName);
+		}
+	}
+
+	// the variant file if it has been generated, otherwise null
+	public Path resolve(String directory, String fileName, ImageVariant variant) {
+		Path root = Paths.get(directory, VARIANTS_DIRECTORY, variant.directoryName()).toAbsolutePath().normalize();
+		Path file = variantPath(directory, fileName, variant).toAbsolutePath().normalize();
+		return file.startsWith(root) && Files.isRegularFile(file) ? file : null;
+	}
+
+	// keyed by the full stored name: the same bytes stored as a.png and a.jpeg are two blobs, collecting one
+	// must not take the variants of the other with it
+	public Path variantPath(String directory, String fileName, ImageVariant variant) {
+		return Paths.get(directory, VARIANTS_DIRECTORY, variant.directoryName(), fileName + ".jpg");
+	}
+
+	void generate(String directory, String fileName) {
+		try {
+			BufferedImage original = read(Paths.get(directory, fileName));
+			if (original == null) {
+				return;
+			}
+			for (ImageVariant variant : ImageVariant.values()) {
+				Path target = variantPath(directory, fileName, variant);
+				if (Files.exists(target)) {
+					continue;
+				}
+				Files.createDirectories(target.getParent());
+				// written next to the target and moved in place so a half written file is never served
+				Path temp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+				try {
+					writeJpeg(resize(original, variant.getMaxWidth()), temp);
+					Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					Files.deleteIfExists(temp);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Unable to generate variants for {}", fileName, e);
+		}
+	}
+
+	private BufferedImage read(Path file) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+			Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+			if (readers == null || !readers.hasNext()) {
+				LOGGER.debug("{} is not a readable image, no variants generated", file.getFileName());
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+				if (pixels > maxPixels) {
+					LOGGER.warn("{} is {}x{} pixels, over the limit of {}, no variants generated", file.getFileName(),
+							reader.getWidth(0), reader.getHeight(0), maxPixels);
+					return null;
+				}
+				return reader.read(0);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private BufferedImage resize(BufferedImage original, int maxWidth) {
+		int width = Math.min(maxWidth, original.getWidth());
+		int height = Math.max(1, (int) Math.round((double) original.getHeight() * width / original.getWidth()));
+
+		// jpeg has no alpha, transparent areas become white
+		BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = resized.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(original, 0, 0, width, height, Color.WHITE, null);
+		} finally {
+			graphics.dispose();
+		}
+		return resized;
+	}
+
+	private void writeJpeg(BufferedImage image, Path target) throws IOException {
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+		ImageWriter writer = writers.next();
+		try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(jpegQuality);
+			writer.setOutput(out);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.backend.blog.mappers;
+
+import org.springframework.stereotype.Component;
+
+import com.backend.blog.entities.Category;
+import com.backend.blog.entities.Comment;
+import com.backend.blog.entities.Post;
+import com.backend.blog.entities.Role;
+import com.backend.blog.entities.User;
+import com.backend.blog.payloads.CategoryDto;
+import com.backend.blog.payloads.CommentDto;
+import com.backend.blog.payloads.PostDto;
+import com.backend.blog.payloads.RoleDto;
+import com.backend.blog.payloads.UserDto;
+
+/**
+ * Plain getter / setter mapping between entities and DTOs, used instead of a
+ * reflective mapper on every request.
+ * <p>
+ * Entity to DTO copies everything a client may see. DTO to entity only copies
+ * client editable fields, ids, roles, passwords and relations are set by the
+ * services.
+ */
+@Component
+public class DtoMapper {
+
+	// category
+
+	public CategoryDto toCategoryDto(Category category) {
+		if (category == null) {
+			return null;
+		}
+		CategoryDto categoryDto = new CategoryDto();
+		categoryDto.setCategoryId(category.getCategoryId());
+		categoryDto.setCategoryTitle(category.getCategoryTitle());
+		categoryDto.setCategoryDescription(category.getCategoryDescription());
+		categoryDto.setPostCount(category.getPostCount());
+		return categoryDto;
+	}
+
+	public Category toCategory(CategoryDto categoryDto) {
+		Category category = new Category();
+		category.setCategoryTitle(categoryDto.getCategoryTitle());
+		category.setCategoryDescription(categoryDto.getCategoryDescription());
+		return category;
+	}
+
+	// comment
+
+	public CommentDto toCommentDto(Comment comment) {
+		CommentDto commentDto = new CommentDto();
+		commentDto.setId(comment.getId());
+		commentDto.setContent(comment.getContent());
+		commentDto.setClientId(comment.getClientId());
+		return commentDto;
+	}
+
+	public Comment toComment(CommentDto commentDto) {
+		Comment comment = new Comment();
+		comment.setContent(commentDto.getContent());
+		return comment;
+	}
+
+	// user
+
+	public RoleDto toRoleDto(Role role) {
+		RoleDto roleDto = new RoleDto();
+		roleDto.setId(role.getId());
+		roleDto.setName(role.getName());
+		return roleDto;
+	}
+
+	public UserDto toUserDto(User user) {
+		if (user == null) {
+			return null;
+		}
+		UserDto userDto = new UserDto();
+		userDto.setId(user.getId());
+		userDto.setName(user.getName());
+		userDto.setEmail(user.getEmail());
+		userDto.setAbout(user.getAbout());
+		for (Role role : user.getRoles()) {
+			userDto.getRoles().add(this.toRoleDto(role));
+		}
+		userDto.setProvider(user.getProvider() == null ? null : user.getProvider().name());
+		userDto.setEmailVerified(user.isEmailVerified());
+		userDto.setPostCount(user.getPostCount());
+		return userDto;
+	}
+
+	public User toUser(UserDto userDto) {
+		User user = new User();
+		user.setName(userDto.getName());
+		user.setEmail(userDto.getEmail());
+		user.setAbout(userDto.getAbout());
+		return user;
+	}
+
+	// post, comments are attached by the post service in bulk
+
+	public PostDto toPostDto(Post post) {
+		PostDto postDto = new PostDto();
+		postDto.setPostId(post.getPostId());
+		postDto.setTitle(post.getTitle());
+		postDto.setContent(post.getContent());
+		postDto.setImageName(post.getImageName());
+		postDto.setAddedDate(post.getAddedDate());
+		postDto.setCategory(this.toCategoryDto(post.getCategory()));
+		postDto.setUser(this.toUserDto(post.getUser()));
+		postDto.setCommentCount(post.getCommentCount());
+		return postDto;
+	}
+
+	public Post toPost(PostDto postDto) {
+		Post post = new Post();
+		post.setTitle(postDto.getTitle());
+		post.setContent(postDto.getContent());
+		return post;
+	}
+
+}
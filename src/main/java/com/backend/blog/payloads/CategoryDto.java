@@ -21,4 +21,6 @@ public class CategoryDto {
 	@Size(min = 10, message = "min size of cateogry desc is 10")
 	private String categoryDescription;
 
+	private long postCount;
+
 }
@@ -0,0 +1,21 @@
+package com.backend.blog.payloads;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class CommentResponse {
+
+	private List<CommentDto> content;
+	private int pageSize;
+	private boolean lastPage;
+
+	// id of the last comment returned, pass back as ?after= to fetch the next page
+	private Integer nextCursor;
+
+}
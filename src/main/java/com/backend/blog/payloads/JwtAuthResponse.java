@@ -6,6 +6,9 @@ import lombok.Data;
 public class JwtAuthResponse {
 
 	private String token;
+
+	// exchanged at /auth/refresh for a new pair, each one works once
+	private String refreshToken;
 	
 	private UserDto user;
 }
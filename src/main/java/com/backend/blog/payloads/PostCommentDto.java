@@ -0,0 +1,25 @@
+package com.backend.blog.payloads;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// constructor projection of a comment together with the id of its post,
+// lets a whole page of posts get its comments in one query
+@Getter
+@AllArgsConstructor
+public class PostCommentDto {
+
+	private Integer postId;
+
+	private int id;
+
+	private String content;
+
+	public CommentDto toCommentDto() {
+		CommentDto commentDto = new CommentDto();
+		commentDto.setId(this.id);
+		commentDto.setContent(this.content);
+		return commentDto;
+	}
+
+}
@@ -1,8 +1,8 @@
 package com.backend.blog.payloads;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,7 +27,10 @@ public class PostDto {
 
 	private UserDto user;
 	
-	private Set<CommentDto> comments=new HashSet<>();
+	// only the first few comments, the rest is paged through /post/{postId}/comments
+	private List<CommentDto> comments=new ArrayList<>();
+
+	private long commentCount;
 
 	
 	
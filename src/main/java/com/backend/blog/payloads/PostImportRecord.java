@@ -0,0 +1,28 @@
+package com.backend.blog.payloads;
+
+import java.util.Date;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// one line of a bulk post import (NDJSON), author and category are referenced by id
+@NoArgsConstructor
+@Getter
+@Setter
+public class PostImportRecord {
+
+	private String title;
+
+	private String content;
+
+	private String imageName;
+
+	// defaults to the time of the import
+	private Date addedDate;
+
+	private Integer userId;
+
+	private Integer categoryId;
+
+}
@@ -0,0 +1,45 @@
+package com.backend.blog.payloads;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class PostImportReport {
+
+	private long received;
+
+	private long imported;
+
+	private long failed;
+
+	private long durationMs;
+
+	private double postsPerSecond;
+
+	// only the first few failures are listed, failed still counts all of them
+	private List<RecordError> errors = new ArrayList<>();
+
+	private boolean errorsTruncated;
+
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	@Setter
+	public static class RecordError {
+
+		// 1-based line of the NDJSON body
+		private long line;
+
+		private String title;
+
+		private String message;
+	}
+
+}
@@ -18,6 +18,9 @@ public class PostResponse {
 	private long totalElements;
 	private int totalPages;	
 	private boolean lastPage;
+
+	// only set in cursor mode, pass back as ?after= to fetch the next page
+	private String nextCursor;
 	
 	
 }
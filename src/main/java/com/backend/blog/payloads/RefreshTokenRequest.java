@@ -0,0 +1,10 @@
+package com.backend.blog.payloads;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+
+	private String refreshToken;
+
+}
@@ -43,6 +43,8 @@ public class UserDto {
 	private String provider;
 
 	private boolean emailVerified;
+
+	private long postCount;
 	
 	
 	@JsonIgnore
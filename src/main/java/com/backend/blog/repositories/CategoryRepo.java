@@ -1,9 +1,25 @@
 package com.backend.blog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.backend.blog.entities.Category;
 
 public interface CategoryRepo extends JpaRepository<Category, Integer> {
 
+	// served from the query cache until a category is written
+	@Override
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	List<Category> findAll();
+
+	@Query("select c.categoryId from Category c where c.categoryId in :ids")
+	List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
 }
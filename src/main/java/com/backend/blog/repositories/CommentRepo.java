@@ -1,9 +1,44 @@
 package com.backend.blog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.backend.blog.entities.Comment;
+import com.backend.blog.payloads.PostCommentDto;
 
 public interface CommentRepo extends JpaRepository<Comment, Integer> {
 
+	// first :limit comments of every post in the page: rows are numbered per post in index order
+	// (idx_comments_post_id), a single pass over each post's comments. the total is posts.comment_count.
+	// the query space keeps hibernate from flushing the whole session before a native query
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "comments"))
+	@Query(value = "select post_post_id, id, content from (select c.post_post_id, c.id, c.content, "
+			+ "row_number() over (partition by c.post_post_id order by c.id) as rn "
+			+ "from comments c where c.post_post_id in (:postIds)) ranked "
+			+ "where rn <= :limit order by post_post_id, id", nativeQuery = true)
+	List<Object[]> findPreviewRowsByPostIds(@Param("postIds") Collection<Integer> postIds,
+			@Param("limit") long limit);
+
+	default List<PostCommentDto> findPreviewsByPostIds(Collection<Integer> postIds, long limit) {
+		return findPreviewRowsByPostIds(postIds, limit).stream()
+				.map(row -> new PostCommentDto(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+						(String) row[2]))
+				.collect(Collectors.toList());
+	}
+
+	// keyset pagination of one post's comments, oldest first
+	@Query("select new com.backend.blog.payloads.PostCommentDto(c.post.postId, c.id, c.content) "
+			+ "from Comment c where c.post.postId = :postId and c.id > :after order by c.id asc")
+	List<PostCommentDto> findPageByPostId(@Param("postId") Integer postId, @Param("after") int after,
+			Pageable pageable);
+
 }
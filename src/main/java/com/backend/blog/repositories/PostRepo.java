@@ -1,9 +1,18 @@
 package com.backend.blog.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.backend.blog.entities.Category;
@@ -12,11 +21,113 @@ import com.backend.blog.entities.User;
 
 public interface PostRepo extends JpaRepository<Post, Integer> {
 
+	// listing queries fetch category and user in the same select instead of one lookup per post
+
+	@Override
+	@EntityGraph(attributePaths = { "category", "user" })
+	Page<Post> findAll(Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
 	List<Post> findByUser(User user);
+
+	@EntityGraph(attributePaths = { "category", "user" })
 	List<Post> findByCategory(Category category);	
-	
-	@Query("select p from Post p where p.title like :key")
-	List<Post> searchByTitle(@Param("key") String title);
-	
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	List<Post> findByPostIdIn(Collection<Integer> postIds);
+
+	// batches of post text for (re)building the search index
+
+	@Query("select p.postId as postId, p.title as title, p.content as content from Post p "
+			+ "where p.postId > :postId order by p.postId asc")
+	List<PostText> findTextBatchAfter(@Param("postId") Integer postId, Pageable pageable);
+
+	// exact check behind the title bloom filter, uses idx_posts_title_id (case-insensitive collation)
+	boolean existsByTitle(String title);
+
+	// bulk form of existsByTitle for imports
+	@Query("select p.title from Post p where p.title in :titles")
+	List<String> findTitlesIn(@Param("titles") Collection<String> titles);
+
+	// image names still referenced by a post, used by the image store garbage collector
+
+	@Query("select distinct p.imageName from Post p where p.imageName is not null")
+	List<String> findReferencedImageNames();
+
+	// scalar queries for replaying the title bloom filter past its snapshot
+
+	@Query("select coalesce(max(p.postId), 0) from Post p")
+	int findMaxPostId();
+
+	@Query("select p.title from Post p where p.postId > :postId")
+	List<String> findTitlesAfterPostId(@Param("postId") Integer postId);
+
+	// title only, fetched in chunks from a server side cursor - must be consumed inside a transaction
+
+	@QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("select p.title from Post p")
+	Stream<String> streamAllTitles();
+
+	// titles of a user's or category's posts, they go away with it through the cascade
+
+	@Query("select p.title from Post p where p.user.id = :userId")
+	List<String> findTitlesByUserId(@Param("userId") Integer userId);
+
+	@Query("select p.title from Post p where p.category.categoryId = :categoryId")
+	List<String> findTitlesByCategoryId(@Param("categoryId") Integer categoryId);
+
+	// ids of the posts a user or category delete cascades to, the search index has to drop them
+	@Query("select p.postId from Post p where p.user.id = :userId")
+	List<Integer> findPostIdsByUserId(@Param("userId") Integer userId);
+
+	@Query("select p.postId from Post p where p.category.categoryId = :categoryId")
+	List<Integer> findPostIdsByCategoryId(@Param("categoryId") Integer categoryId);
+
+	// keyset (seek) pagination - returning a List skips the count query
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	List<Post> findAllBy(Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	@Query("select p from Post p where p.postId > :postId order by p.postId asc")
+	List<Post> findPageAfterPostIdAsc(@Param("postId") Integer postId, Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	@Query("select p from Post p where p.postId < :postId order by p.postId desc")
+	List<Post> findPageAfterPostIdDesc(@Param("postId") Integer postId, Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	@Query("select p from Post p where p.title > :title or (p.title = :title and p.postId > :postId) "
+			+ "order by p.title asc, p.postId asc")
+	List<Post> findPageAfterTitleAsc(@Param("title") String title, @Param("postId") Integer postId,
+			Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	@Query("select p from Post p where p.title < :title or (p.title = :title and p.postId < :postId) "
+			+ "order by p.title desc, p.postId desc")
+	List<Post> findPageAfterTitleDesc(@Param("title") String title, @Param("postId") Integer postId,
+			Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	@Query("select p from Post p where p.addedDate > :addedDate or (p.addedDate = :addedDate and p.postId > :postId) "
+			+ "order by p.addedDate asc, p.postId asc")
+	List<Post> findPageAfterAddedDateAsc(@Param("addedDate") Date addedDate, @Param("postId") Integer postId,
+			Pageable pageable);
+
+	@EntityGraph(attributePaths = { "category", "user" })
+	@Query("select p from Post p where p.addedDate < :addedDate or (p.addedDate = :addedDate and p.postId < :postId) "
+			+ "order by p.addedDate desc, p.postId desc")
+	List<Post> findPageAfterAddedDateDesc(@Param("addedDate") Date addedDate, @Param("postId") Integer postId,
+			Pageable pageable);
+
+	interface PostText {
+
+		Integer getPostId();
+
+		String getTitle();
+
+		String getContent();
+	}
 
 }
@@ -1,13 +1,45 @@
 package com.backend.blog.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.backend.blog.entities.User;
 
 public interface UserRepo extends JpaRepository<User, Integer>{
 		
 	
+	// cached lookup used by every login and token check, invalidated on any write to users
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	Optional<User> findByEmail(String email);
+
+	// exact uniqueness check behind the email bloom filter, served by the unique email index
+	boolean existsByEmail(String email);
+
+	// scalar queries for replaying the email bloom filter past its snapshot
+
+	@Query("select coalesce(max(u.id), 0) from User u")
+	int findMaxId();
+
+	@Query("select u.email from User u where u.id > :id")
+	List<String> findEmailsAfterId(@Param("id") int id);
+
+	// email only, fetched in chunks from a server side cursor - must be consumed inside a transaction
+
+	@QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("select u.email from User u")
+	Stream<String> streamAllEmails();
+
+	// which of the given ids exist, bulk imports resolve authors with this instead of loading users
+	@Query("select u.id from User u where u.id in :ids")
+	List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
 }
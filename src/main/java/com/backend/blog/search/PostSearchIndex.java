@@ -0,0 +1,213 @@
+package com.backend.blog.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.backend.blog.entities.Post;
+import com.backend.blog.repositories.PostRepo;
+
+/**
+ * In-memory inverted index over post title and content, ranked with BM25.
+ * Title terms are counted {@link #TITLE_WEIGHT} times so a hit in the title
+ * outranks the same hit buried in the content.
+ */
+@Service
+public class PostSearchIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PostSearchIndex.class);
+
+	private static final int TITLE_WEIGHT = 3;
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	@Value("${search.index.rebuildOnStartup:true}")
+	private boolean rebuildOnStartup;
+
+	@Value("${search.index.batchSize:500}")
+	private int batchSize;
+
+	@Autowired
+	private PostRepo postRepo;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// term -> (postId -> weighted term frequency)
+	private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+	// postId -> distinct terms, needed to clean up postings on update / delete
+	private final Map<Integer, String[]> documentTerms = new HashMap<>();
+
+	private final Map<Integer, Integer> documentLengths = new HashMap<>();
+
+	private long totalLength;
+
+	@PostConstruct
+	public void initIndex() {
+		if (rebuildOnStartup) {
+			rebuild();
+		}
+	}
+
+	public void rebuild() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documentTerms.clear();
+			documentLengths.clear();
+			totalLength = 0;
+
+			int lastPostId = 0;
+			List<PostRepo.PostText> batch;
+			do {
+				batch = postRepo.findTextBatchAfter(lastPostId, PageRequest.of(0, batchSize));
+				for (PostRepo.PostText post : batch) {
+					addDocument(post.getPostId(), post.getTitle(), post.getContent());
+					lastPostId = post.getPostId();
+				}
+			} while (batch.size() == batchSize);
+
+			LOGGER.info("Search index built with {} posts and {} terms", documentLengths.size(), postings.size());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void index(Post post) {
+		if (post == null || post.getPostId() == null) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			removeDocument(post.getPostId());
+			addDocument(post.getPostId(), post.getTitle(), post.getContent());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Integer postId) {
+		lock.writeLock().lock();
+		try {
+			removeDocument(postId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Ranks every post matching at least one query term and returns the
+	 * requested page of post ids, best match first.
+	 */
+	public SearchHits search(String query, int pageNumber, int pageSize) {
+		if (pageNumber < 0 || pageSize < 1) {
+			throw new IllegalArgumentException("pageNumber must be >= 0 and pageSize >= 1");
+		}
+		List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+		if (terms.isEmpty()) {
+			return new SearchHits(Collections.emptyList(), 0);
+		}
+
+		Map<Integer, Double> scores = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			int documentCount = documentLengths.size();
+			double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+			for (String term : terms) {
+				Map<Integer, Integer> postingList = postings.get(term);
+				if (postingList == null) {
+					continue;
+				}
+				double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+				postingList.forEach((postId, frequency) -> {
+					double lengthRatio = averageLength == 0 ? 1 : documentLengths.get(postId) / averageLength;
+					double score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengthRatio));
+					scores.merge(postId, score, Double::sum);
+				});
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+		ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+		// long math, a far away page must not wrap around to a negative offset
+		int from = (int) Math.min((long) pageNumber * pageSize, ranked.size());
+		int to = Math.min(from + pageSize, ranked.size());
+		List<Integer> postIds = new ArrayList<>(to - from);
+		for (Map.Entry<Integer, Double> entry : ranked.subList(from, to)) {
+			postIds.add(entry.getKey());
+		}
+		return new SearchHits(postIds, ranked.size());
+	}
+
+	private void addDocument(Integer postId, String title, String content) {
+		Map<String, Integer> frequencies = new HashMap<>();
+		for (String term : SearchTokenizer.tokenize(title)) {
+			frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+		}
+		for (String term : SearchTokenizer.tokenize(content)) {
+			frequencies.merge(term, 1, Integer::sum);
+		}
+
+		int length = 0;
+		for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+			postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(postId, entry.getValue());
+			length += entry.getValue();
+		}
+		documentTerms.put(postId, frequencies.keySet().toArray(new String[0]));
+		documentLengths.put(postId, length);
+		totalLength += length;
+	}
+
+	private void removeDocument(Integer postId) {
+		String[] terms = documentTerms.remove(postId);
+		if (terms == null) {
+			return;
+		}
+		for (String term : terms) {
+			Map<Integer, Integer> postingList = postings.get(term);
+			if (postingList != null) {
+				postingList.remove(postId);
+				if (postingList.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+		}
+		totalLength -= documentLengths.remove(postId);
+	}
+
+	public static class SearchHits {
+
+		private final List<Integer> postIds;
+		private final long totalHits;
+
+		public SearchHits(List<Integer> postIds, long totalHits) {
+			this.postIds = postIds;
+			this.totalHits = totalHits;
+		}
+
+		public List<Integer> getPostIds() {
+			return postIds;
+		}
+
+		public long getTotalHits() {
+			return totalHits;
+		}
+	}
+}
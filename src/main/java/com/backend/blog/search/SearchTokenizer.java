@@ -0,0 +1,53 @@
+package com.backend.blog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Splits text into lower-cased terms on anything that is not a letter or a
+ * digit and drops a small set of english stop words.
+ */
+public final class SearchTokenizer {
+
+	private static final int MIN_TERM_LENGTH = 2;
+
+	private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "but", "by",
+			"for", "if", "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their",
+			"then", "there", "these", "they", "this", "to", "was", "will", "with");
+
+	private SearchTokenizer() {
+	}
+
+	public static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		if (!StringUtils.hasText(text)) {
+			return terms;
+		}
+		int length = text.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				addTerm(terms, text.substring(start, i));
+				start = -1;
+			}
+		}
+		return terms;
+	}
+
+	private static void addTerm(List<String> terms, String word) {
+		if (word.length() < MIN_TERM_LENGTH) {
+			return;
+		}
+		String term = word.toLowerCase(Locale.ROOT);
+		if (!STOP_WORDS.contains(term)) {
+			terms.add(term);
+		}
+	}
+}
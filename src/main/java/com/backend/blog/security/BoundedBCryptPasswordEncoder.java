@@ -0,0 +1,61 @@
+package com.backend.blog.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * BCrypt with a configurable cost whose work always runs on the
+ * {@link PasswordHashingExecutor}. Hashes made with any other cost report
+ * {@link #upgradeEncoding(String)} so the authentication provider rehashes
+ * them on the next successful login, in either direction.
+ */
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+	private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+	private final BCryptPasswordEncoder delegate;
+
+	private final int strength;
+
+	private final PasswordHashingExecutor executor;
+
+	private final Timer encodeTimer;
+
+	private final Timer matchesTimer;
+
+	public BoundedBCryptPasswordEncoder(int strength, PasswordHashingExecutor executor, MeterRegistry meterRegistry) {
+		this.delegate = new BCryptPasswordEncoder(strength);
+		this.strength = strength;
+		this.executor = executor;
+		this.encodeTimer = Timer.builder("security.password.hash").tag("operation", "encode")
+				.publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+		this.matchesTimer = Timer.builder("security.password.hash").tag("operation", "matches")
+				.publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executor.call(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executor.call(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		if (encodedPassword == null) {
+			return false;
+		}
+		Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+		return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+	}
+
+}
@@ -2,6 +2,7 @@ package com.backend.blog.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +12,7 @@ import com.backend.blog.exceptions.ResourceNotFoundException;
 import com.backend.blog.repositories.UserRepo;
 
 @Service
-public class CustomUserDetailService implements UserDetailsService {
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
 
 	@Autowired
 	private UserRepo userRepo;
@@ -26,4 +27,12 @@ public class CustomUserDetailService implements UserDetailsService {
 		return user;
 	}
 
+	// called by the authentication provider after a login whose hash used another bcrypt cost
+	@Override
+	public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+		User user = (User) userDetails;
+		user.setPassword(newPassword);
+		return this.userRepo.save(user);
+	}
+
 }
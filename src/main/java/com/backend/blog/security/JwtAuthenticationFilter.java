@@ -8,14 +8,15 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 
@@ -28,11 +29,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	private static final Logger LOGGER = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
 	@Autowired
-	private UserDetailsService userDetailsService;
+	private PrincipalCache principalCache;
 
 	@Autowired
 	private JwtTokenHelper jwtTokenHelper;
 
+	// principal built from the token claims instead of the cached User entity
+	@Value("${jwt.statelessPrincipal:false}")
+	private boolean statelessPrincipal;
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
@@ -45,12 +50,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 		String token = null;
 
+		Claims claims = null;
+
 		if (requestToken != null && requestToken.startsWith("Bearer")) {
 
 			token = requestToken.substring(7);
 
 			try {
-				username = this.jwtTokenHelper.getUsernameFromToken(token);
+				// single parse + signature check, reused for validation below
+				claims = this.jwtTokenHelper.getVerifiedClaims(token);
+				if (this.jwtTokenHelper.isAccessToken(claims)) {
+					username = claims.getSubject();
+				} else {
+					// refresh tokens are only good at /auth/refresh
+					LOGGER.debug("Non access token sent as bearer token");
+				}
 			} catch (IllegalArgumentException e) {
 				LOGGER.warn("Unable to parse JWT token", e);
 			} catch (ExpiredJwtException e) {
@@ -70,14 +84,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 		if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-			UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+			UserDetails userDetails = this.statelessPrincipal ? this.jwtTokenHelper.getPrincipal(claims) : null;
+			if (userDetails == null) {
+				userDetails = this.principalCache.get(username);
+			}
 
-			if (this.jwtTokenHelper.validateToken(token, userDetails)) {
+			if (this.jwtTokenHelper.validateToken(claims, userDetails)) {
 				// shi chal rha hai
 				// authentication karna hai
 
+				// authorities come from the token, role changes apply once the short lived access token is renewed
 				UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-						userDetails, null, userDetails.getAuthorities());
+						userDetails, null, this.jwtTokenHelper.getAuthorities(claims));
 				usernamePasswordAuthenticationToken
 						.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 				SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
@@ -0,0 +1,77 @@
+package com.backend.blog.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Immutable principal holding only id, email and roles. Built straight from the
+ * claims of an access token when {@code jwt.statelessPrincipal} is on, and kept
+ * by {@link PrincipalCache} as the snapshot of a loaded user otherwise. Code
+ * that needs the full user loads it by {@link #getId()}.
+ */
+public class JwtPrincipal implements UserDetails {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int id;
+
+	private final String email;
+
+	private final List<GrantedAuthority> authorities;
+
+	public JwtPrincipal(int id, String email, List<GrantedAuthority> authorities) {
+		this.id = id;
+		this.email = email;
+		this.authorities = List.copyOf(authorities);
+	}
+
+	public int getId() {
+		return this.id;
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return this.authorities;
+	}
+
+	// never part of a token
+	@Override
+	public String getPassword() {
+		return null;
+	}
+
+	@Override
+	public String getUsername() {
+		return this.email;
+	}
+
+	// the token was issued to an active account and expires within minutes
+	@Override
+	public boolean isAccountNonExpired() {
+		return true;
+	}
+
+	@Override
+	public boolean isAccountNonLocked() {
+		return true;
+	}
+
+	@Override
+	public boolean isCredentialsNonExpired() {
+		return true;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "JwtPrincipal [id=" + id + ", email=" + email + ", authorities=" + authorities + "]";
+	}
+
+}
@@ -1,16 +1,36 @@
 package com.backend.blog.security;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.backend.blog.entities.User;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 
 
 
@@ -18,10 +38,43 @@ import io.jsonwebtoken.SignatureAlgorithm;
 public class JwtTokenHelper {
 
 
-    public static final long JWT_TOKEN_VALIDITY = 5 * 60 * 60;
+    // access tokens are short lived and carry the roles, refresh tokens only name their user and family
+    public static final String CLAIM_TYPE = "typ";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_FAMILY = "fam";
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    // HS512 wants a key at least as long as its 512 bit output
+    private static final int MIN_SECRET_BYTES = 64;
+
+    // base64 encoded, as jjwt decodes it; there is no default, a missing secret fails startup
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.accessTokenValiditySeconds:900}")
+    private long accessTokenValidity;
+
+    @Value("${jwt.refreshTokenValiditySeconds:1209600}")
+    private long refreshTokenValidity;
 
+    @Value("${jwt.verifiedTokenCache.maxSize:10000}")
+    private long verifiedTokenCacheSize;
 
-    private String secret = "jwtTokenKey";
+    // sha-256 of an already verified token -> its claims, entries never outlive the token
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.isBlank() || TextCodec.BASE64.decode(secret).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret must be a base64 encoded key of at least "
+                    + MIN_SECRET_BYTES + " bytes, set it through the JWT_SECRET environment variable");
+        }
+        this.verifiedTokens = CacheBuilder.newBuilder().maximumSize(verifiedTokenCacheSize)
+                .expireAfterWrite(accessTokenValidity, TimeUnit.SECONDS).build();
+    }
 
     //retrieve username from jwt token
     public String getUsernameFromToken(String token) {
@@ -34,25 +87,104 @@ public class JwtTokenHelper {
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = getVerifiedClaims(token);
         return claimsResolver.apply(claims);
     }
 
+    //parse and verify the signature once, a token seen before is served from the cache
+    //throws the usual jjwt exceptions (ExpiredJwtException, MalformedJwtException, SignatureException ...)
+    public Claims getVerifiedClaims(String token) {
+        String key = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims == null) {
+            claims = getAllClaimsFromToken(token);
+            verifiedTokens.put(key, claims);
+        } else if (isTokenExpired(claims)) {
+            verifiedTokens.invalidate(key);
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+        }
+        return claims;
+    }
+
     //for retrieveing any information from token we will need the secret key
     private Claims getAllClaimsFromToken(String token) {
         return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
     }
 
+    //refresh tokens are spent on first use, so they skip the verified token cache
+    //throws MalformedJwtException for anything that is not a refresh token
+    public Claims getRefreshClaims(String token) {
+        Claims claims = getAllClaimsFromToken(token);
+        if (!TYPE_REFRESH.equals(claims.get(CLAIM_TYPE))) {
+            throw new MalformedJwtException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        return TYPE_ACCESS.equals(claims.get(CLAIM_TYPE));
+    }
+
+    //authorities granted by an access token, no user lookup needed
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        Collection<?> roles = claims.get(CLAIM_ROLES, Collection.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream().map(role -> new SimpleGrantedAuthority(role.toString())).collect(Collectors.toList());
+    }
+
+    //principal for jwt.statelessPrincipal, null for tokens issued without a user id
+    public JwtPrincipal getPrincipal(Claims claims) {
+        Integer userId = claims.get(CLAIM_USER_ID, Integer.class);
+        if (userId == null) {
+            return null;
+        }
+        return new JwtPrincipal(userId, claims.getSubject(), getAuthorities(claims));
+    }
+
+    public long getRefreshTokenValidity() {
+        return refreshTokenValidity;
+    }
+
     //check if the token has expired
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
+    private Boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
         return expiration.before(new Date());
     }
 
-    //generate token for user
+    //generate access token for user
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        return doGenerateToken(claims, userDetails.getUsername());
+        claims.put(CLAIM_TYPE, TYPE_ACCESS);
+        claims.put(CLAIM_ROLES, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        Integer userId = getUserId(userDetails);
+        if (userId != null) {
+            claims.put(CLAIM_USER_ID, userId);
+        }
+        return doGenerateToken(claims, userDetails.getUsername(), null, accessTokenValidity);
+    }
+
+    //generate refresh token, every rotation of one login shares the family
+    public String generateRefreshToken(UserDetails userDetails, String family) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_TYPE, TYPE_REFRESH);
+        claims.put(CLAIM_FAMILY, family);
+        return doGenerateToken(claims, userDetails.getUsername(), UUID.randomUUID().toString(), refreshTokenValidity);
+    }
+
+    private Integer getUserId(UserDetails userDetails) {
+        if (userDetails instanceof User) {
+            return ((User) userDetails).getId();
+        }
+        if (userDetails instanceof UserPrincipal) {
+            return ((UserPrincipal) userDetails).getUser().getId();
+        }
+        if (userDetails instanceof JwtPrincipal) {
+            return ((JwtPrincipal) userDetails).getId();
+        }
+        return null;
     }
 
     //while creating the token -
@@ -60,17 +192,23 @@ public class JwtTokenHelper {
     //2. Sign the JWT using the HS512 algorithm and secret key.
     //3. According to JWS Compact Serialization(https://tools.ietf.org/html/draft-ietf-jose-json-web-signature-41#section-3.1)
     //   compaction of the JWT to a URL-safe string
-    private String doGenerateToken(Map<String, Object> claims, String subject) {
+    private String doGenerateToken(Map<String, Object> claims, String subject, String id, long validitySeconds) {
 
-        return Jwts.builder().setClaims(claims).setSubject(subject).setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000))
+        return Jwts.builder().setClaims(claims).setSubject(subject).setId(id)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + validitySeconds * 1000))
                 .signWith(SignatureAlgorithm.HS512, secret).compact();
     }
 
     //validate token
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(getVerifiedClaims(token), userDetails);
+    }
+
+    //validate already verified claims against the user, no parsing involved
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 	
 	
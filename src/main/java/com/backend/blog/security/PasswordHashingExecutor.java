@@ -0,0 +1,106 @@
+package com.backend.blog.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.backend.blog.exceptions.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Small bounded pool that every bcrypt hash and verification runs on, so a
+ * burst of logins costs at most {@code threads} cores however many servlet
+ * threads are waiting for it. Only the hashing itself is submitted, user
+ * lookups and saves stay on the calling thread. When the pool and its short
+ * queue are full the work is refused right away with
+ * {@link ServiceBusyException} instead of queueing behind seconds of hashing.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+	private static final String THREAD_PREFIX = "password-hashing-";
+
+	@Value("${security.password.hashing.threads:0}")
+	private int threads;
+
+	@Value("${security.password.hashing.queueCapacity:64}")
+	private int queueCapacity;
+
+	@Value("${security.password.hashing.timeoutMs:5000}")
+	private long timeoutMs;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private ThreadPoolExecutor executor;
+
+	private Counter rejected;
+
+	@PostConstruct
+	public void initExecutor() {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, THREAD_PREFIX + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.rejected = meterRegistry.counter("security.password.hashing.rejected");
+		meterRegistry.gauge("security.password.hashing.queued", executor, pool -> pool.getQueue().size());
+		meterRegistry.gauge("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	// runs the task on the pool, the caller's thread is free until it completes
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, executor);
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw new ServiceBusyException("Too many logins in progress, retry shortly.", 1);
+		}
+	}
+
+	// runs the task on the pool and waits for it. tasks must not call back into the pool, a task
+	// waiting on its own pool can deadlock once every thread does it
+	public <T> T call(Supplier<T> task) {
+		CompletableFuture<T> future = submit(task);
+		try {
+			return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			// nobody waits for the result anymore, a task still in the queue is skipped instead of hashed
+			future.cancel(true);
+			throw new ServiceBusyException("Password hashing timed out, retry shortly.", 1);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+}
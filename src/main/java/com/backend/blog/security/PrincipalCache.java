@@ -0,0 +1,77 @@
+package com.backend.blog.security;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import com.backend.blog.entities.User;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded, time limited cache of authenticated principals keyed by email so
+ * that {@link JwtAuthenticationFilter} does not load the user on every
+ * request. Anything that changes a user must call {@link #invalidate(String)}.
+ * <p>
+ * The cache holds an immutable {@link JwtPrincipal} snapshot (id, email,
+ * roles) rather than the {@link User} entity, which would be shared by every
+ * request thread and could be changed by any of them. Code that needs the full
+ * user loads it by {@link JwtPrincipal#getId()}.
+ */
+@Component
+public class PrincipalCache {
+
+	@Value("${security.principalCache.maxSize:10000}")
+	private long maxSize;
+
+	@Value("${security.principalCache.ttlSeconds:300}")
+	private long ttlSeconds;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	private Cache<String, JwtPrincipal> principals;
+
+	@PostConstruct
+	public void initCache() {
+		this.principals = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+				.build();
+	}
+
+	// concurrent misses for one email share a single load
+	public UserDetails get(String email) {
+		try {
+			return principals.get(key(email), () -> snapshot(userDetailsService.loadUserByUsername(email)));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			// ResourceNotFoundException and friends reach the caller unwrapped
+			Throwables.throwIfUnchecked(e.getCause());
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	public void invalidate(String email) {
+		if (email != null) {
+			principals.invalidate(key(email));
+		}
+	}
+
+	private static JwtPrincipal snapshot(UserDetails userDetails) {
+		User user = (User) userDetails;
+		return new JwtPrincipal(user.getId(), user.getEmail(), new ArrayList<>(user.getAuthorities()));
+	}
+
+	private String key(String email) {
+		return email.toLowerCase(Locale.ROOT);
+	}
+}
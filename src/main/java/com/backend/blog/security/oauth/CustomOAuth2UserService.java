@@ -4,11 +4,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -17,20 +20,26 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
 
+import com.backend.blog.bloom.BloomFilterService;
 import com.backend.blog.config.AppConstants;
 import com.backend.blog.entities.AuthProvider;
 import com.backend.blog.entities.Role;
 import com.backend.blog.entities.User;
 import com.backend.blog.repositories.RoleRepo;
 import com.backend.blog.repositories.UserRepo;
+import com.backend.blog.security.PrincipalCache;
 import com.backend.blog.security.UserPrincipal;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 @Service
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
@@ -46,8 +55,39 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 
+	// pooled, with connect / read timeouts (HttpClientConfig)
 	@Autowired
-	private RestTemplateBuilder restTemplateBuilder;
+	private RestTemplate restTemplate;
+
+	@Value("${oauth2.github.emailsUri:https://api.github.com/user/emails}")
+	private String githubEmailsUri;
+
+	@Value("${oauth2.github.emailCache.maxSize:10000}")
+	private long githubEmailCacheSize;
+
+	@Value("${oauth2.github.emailCache.ttlSeconds:300}")
+	private long githubEmailCacheTtlSeconds;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Autowired
+	private BloomFilterService bloomFilterService;
+
+	// github user id -> primary email, repeated logins skip the extra API round trip
+	private Cache<String, String> githubEmails;
+
+	@PostConstruct
+	public void init() {
+		this.githubEmails = CacheBuilder.newBuilder().maximumSize(githubEmailCacheSize)
+				.expireAfterWrite(githubEmailCacheTtlSeconds, TimeUnit.SECONDS).build();
+
+		// the user info call made by DefaultOAuth2UserService would otherwise use a plain RestTemplate without
+		// timeouts, keep the error handler it installs by default
+		RestTemplate userInfoRestTemplate = new RestTemplate(restTemplate.getRequestFactory());
+		userInfoRestTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+		setRestOperations(userInfoRestTemplate);
+	}
 
 	@Override
 	public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
@@ -83,7 +123,9 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 		Role defaultRole = roleRepo.findById(AppConstants.NORMAL_USER)
 				.orElseThrow(() -> new UsernameNotFoundException("Default role not configured"));
 		user.getRoles().add(defaultRole);
-		return userRepo.save(user);
+		User saved = userRepo.save(user);
+		bloomFilterService.recordEmail(saved.getEmail());
+		return saved;
 	}
 
 	private User updateExistingUser(User existing, String registrationId, Map<String, Object> attributes) {
@@ -91,7 +133,9 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 		existing.setProvider(resolveProvider(registrationId));
 		existing.setProviderId(extractProviderId(registrationId, attributes));
 		existing.setEmailVerified(true);
-		return userRepo.save(existing);
+		User saved = userRepo.save(existing);
+		principalCache.invalidate(saved.getEmail());
+		return saved;
 	}
 
 	private String extractEmail(OAuth2UserRequest userRequest, Map<String, Object> attributes) {
@@ -104,7 +148,9 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 			if (StringUtils.hasText(email)) {
 				return email;
 			}
-			return fetchPrimaryGithubEmail(userRequest.getAccessToken().getTokenValue());
+			Object githubId = attributes.get("id");
+			return findPrimaryGithubEmail(githubId != null ? githubId.toString() : null,
+					userRequest.getAccessToken().getTokenValue());
 		}
 		return (String) attributes.get("email");
 	}
@@ -138,6 +184,21 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 		}
 	}
 
+	private String findPrimaryGithubEmail(String providerId, String accessToken) {
+		if (providerId == null) {
+			return fetchPrimaryGithubEmail(accessToken);
+		}
+		String email = githubEmails.getIfPresent(providerId);
+		if (email == null) {
+			email = fetchPrimaryGithubEmail(accessToken);
+			// failures are not cached, the next login asks again
+			if (email != null) {
+				githubEmails.put(providerId, email);
+			}
+		}
+		return email;
+	}
+
 	private String fetchPrimaryGithubEmail(String accessToken) {
 		if (!StringUtils.hasText(accessToken)) {
 			return null;
@@ -148,8 +209,8 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 			headers.add(HttpHeaders.ACCEPT, "application/vnd.github+json");
 			HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-			ResponseEntity<List<Map<String, Object>>> response = restTemplateBuilder.build().exchange(
-					"https://api.github.com/user/emails",
+			ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+					githubEmailsUri,
 					HttpMethod.GET,
 					entity,
 					new ParameterizedTypeReference<List<Map<String, Object>>>() {});
@@ -6,7 +6,6 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,24 +14,25 @@ import org.springframework.security.web.authentication.SimpleUrlAuthenticationSu
 import org.springframework.stereotype.Component;
 
 import com.backend.blog.entities.User;
+import com.backend.blog.mappers.DtoMapper;
 import com.backend.blog.payloads.JwtAuthResponse;
 import com.backend.blog.payloads.UserDto;
 import com.backend.blog.repositories.UserRepo;
-import com.backend.blog.security.JwtTokenHelper;
 import com.backend.blog.security.UserPrincipal;
+import com.backend.blog.security.tokens.RefreshTokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Component
 public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
 
 	@Autowired
-	private JwtTokenHelper jwtTokenHelper;
+	private RefreshTokenService refreshTokenService;
 
 	@Autowired
 	private UserRepo userRepo;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private DtoMapper dtoMapper;
 
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -48,11 +48,9 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
 		UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 		User user = userRepo.findByEmail(principal.getUsername()).orElse(principal.getUser());
 
-		String token = jwtTokenHelper.generateToken(principal);
-		UserDto userDto = modelMapper.map(user, UserDto.class);
+		UserDto userDto = dtoMapper.toUserDto(user);
 
-		JwtAuthResponse authResponse = new JwtAuthResponse();
-		authResponse.setToken(token);
+		JwtAuthResponse authResponse = refreshTokenService.issue(principal);
 		authResponse.setUser(userDto);
 
 		response.setStatus(HttpStatus.OK.value());
@@ -0,0 +1,62 @@
+package com.backend.blog.security.tokens;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// shared by every app node through the revoked_tokens table (entities.RevokedToken). the primary key makes
+// spending a token id atomic, two nodes racing on the same refresh token cannot both win
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "database")
+public class DatabaseTokenRevocationStore implements TokenRevocationStore {
+
+	private static final String USED_PREFIX = "jti:";
+	private static final String FAMILY_PREFIX = "fam:";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public boolean markUsed(String tokenId, Instant expiresAt) {
+		try {
+			insert(USED_PREFIX + tokenId, expiresAt);
+			return true;
+		} catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void revokeFamily(String family, Instant expiresAt) {
+		try {
+			insert(FAMILY_PREFIX + family, expiresAt);
+		} catch (DuplicateKeyException e) {
+			jdbcTemplate.update("update revoked_tokens set expires_at = ? where token_key = ? and expires_at < ?",
+					Timestamp.from(expiresAt), FAMILY_PREFIX + family, Timestamp.from(expiresAt));
+		}
+	}
+
+	@Override
+	public boolean isFamilyRevoked(String family) {
+		Integer count = jdbcTemplate.queryForObject(
+				"select count(*) from revoked_tokens where token_key = ? and expires_at > ?", Integer.class,
+				FAMILY_PREFIX + family, Timestamp.from(Instant.now()));
+		return count != null && count > 0;
+	}
+
+	@Override
+	public int purgeExpired() {
+		return jdbcTemplate.update("delete from revoked_tokens where expires_at <= ?", Timestamp.from(Instant.now()));
+	}
+
+	private void insert(String key, Instant expiresAt) {
+		jdbcTemplate.update("insert into revoked_tokens (token_key, expires_at) values (?, ?)", key,
+				Timestamp.from(expiresAt));
+	}
+
+}
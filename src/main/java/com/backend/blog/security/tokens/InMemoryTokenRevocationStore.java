@@ -0,0 +1,45 @@
+package com.backend.blog.security.tokens;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// single node store: ids map to their expiry in epoch seconds. lost on restart, which only means a refresh
+// token spent before the restart is not recognised as reused
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+	private final Map<String, Long> usedTokens = new ConcurrentHashMap<>();
+
+	private final Map<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean markUsed(String tokenId, Instant expiresAt) {
+		return usedTokens.putIfAbsent(tokenId, expiresAt.getEpochSecond()) == null;
+	}
+
+	@Override
+	public void revokeFamily(String family, Instant expiresAt) {
+		revokedFamilies.merge(family, expiresAt.getEpochSecond(), Math::max);
+	}
+
+	@Override
+	public boolean isFamilyRevoked(String family) {
+		Long expiresAt = revokedFamilies.get(family);
+		return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
+	}
+
+	@Override
+	public int purgeExpired() {
+		long now = Instant.now().getEpochSecond();
+		int before = usedTokens.size() + revokedFamilies.size();
+		usedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+		revokedFamilies.values().removeIf(expiresAt -> expiresAt <= now);
+		return before - usedTokens.size() - revokedFamilies.size();
+	}
+
+}
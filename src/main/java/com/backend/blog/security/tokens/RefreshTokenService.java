@@ -0,0 +1,122 @@
+package com.backend.blog.security.tokens;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.exceptions.ResourceNotFoundException;
+import com.backend.blog.payloads.JwtAuthResponse;
+import com.backend.blog.security.JwtTokenHelper;
+import com.backend.blog.security.PrincipalCache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Issues access / refresh token pairs and rotates them. Every login starts a
+ * token family; each refresh spends the presented refresh token and hands out
+ * a new one of the same family. A spent token coming back means it was copied,
+ * so the whole family is revoked and both holders have to log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenService.class);
+
+	@Autowired
+	private JwtTokenHelper jwtTokenHelper;
+
+	@Autowired
+	private TokenRevocationStore revocationStore;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// tokens for a fresh login
+	public JwtAuthResponse issue(UserDetails userDetails) {
+		return tokens(userDetails, UUID.randomUUID().toString());
+	}
+
+	public JwtAuthResponse refresh(String refreshToken) {
+		Claims claims = verify(refreshToken);
+		String family = claims.get(JwtTokenHelper.CLAIM_FAMILY, String.class);
+
+		if (revocationStore.isFamilyRevoked(family)) {
+			record("revoked");
+			throw invalid();
+		}
+		if (!revocationStore.markUsed(claims.getId(), claims.getExpiration().toInstant())) {
+			// newer tokens of the family may exist, none of them outlives a fresh one
+			revocationStore.revokeFamily(family, Instant.now().plusSeconds(jwtTokenHelper.getRefreshTokenValidity()));
+			LOGGER.warn("Refresh token reused for {}, token family revoked", claims.getSubject());
+			record("reused");
+			throw invalid();
+		}
+
+		// loaded again so the new access token carries the current roles
+		UserDetails userDetails;
+		try {
+			userDetails = principalCache.get(claims.getSubject());
+		} catch (ResourceNotFoundException e) {
+			record("invalid");
+			throw invalid();
+		}
+		record("rotated");
+		return tokens(userDetails, family);
+	}
+
+	// logout: ends the session of this refresh token on every device it was rotated to
+	public void revoke(String refreshToken) {
+		Claims claims = verify(refreshToken);
+		revocationStore.revokeFamily(claims.get(JwtTokenHelper.CLAIM_FAMILY, String.class),
+				Instant.now().plusSeconds(jwtTokenHelper.getRefreshTokenValidity()));
+		record("logout");
+	}
+
+	@Scheduled(fixedDelayString = "${jwt.revocation.purgeIntervalMs:600000}", initialDelayString = "${jwt.revocation.purgeIntervalMs:600000}")
+	public void purgeExpired() {
+		int purged = revocationStore.purgeExpired();
+		if (purged > 0) {
+			LOGGER.debug("Purged {} expired token revocations", purged);
+		}
+	}
+
+	private Claims verify(String refreshToken) {
+		if (refreshToken == null || refreshToken.isEmpty()) {
+			throw invalid();
+		}
+		try {
+			return jwtTokenHelper.getRefreshClaims(refreshToken);
+		} catch (JwtException | IllegalArgumentException e) {
+			record("invalid");
+			throw invalid();
+		}
+	}
+
+	private JwtAuthResponse tokens(UserDetails userDetails, String family) {
+		JwtAuthResponse response = new JwtAuthResponse();
+		response.setToken(jwtTokenHelper.generateToken(userDetails));
+		response.setRefreshToken(jwtTokenHelper.generateRefreshToken(userDetails, family));
+		return response;
+	}
+
+	private void record(String result) {
+		meterRegistry.counter("security.refresh", "result", result).increment();
+	}
+
+	private ApiException invalid() {
+		return new ApiException("Invalid or expired refresh token !!");
+	}
+
+}
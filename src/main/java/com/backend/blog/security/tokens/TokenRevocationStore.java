@@ -0,0 +1,18 @@
+package com.backend.blog.security.tokens;
+
+import java.time.Instant;
+
+// remembers spent refresh token ids and revoked token families, each only until the tokens it covers expire
+public interface TokenRevocationStore {
+
+	// records the token id as spent, false when it already was
+	boolean markUsed(String tokenId, Instant expiresAt);
+
+	void revokeFamily(String family, Instant expiresAt);
+
+	boolean isFamilyRevoked(String family);
+
+	// drops entries whose tokens have expired anyway, returns how many
+	int purgeExpired();
+
+}
@@ -1,6 +1,7 @@
 package com.backend.blog.services;
 
 import com.backend.blog.payloads.CommentDto;
+import com.backend.blog.payloads.CommentResponse;
 
 public interface CommentService {
 
@@ -8,4 +9,6 @@ public interface CommentService {
 
 	void deleteComment(Integer commentId);
 
+	CommentResponse getCommentsByPost(Integer postId, Integer after, Integer pageSize);
+
 }
@@ -0,0 +1,13 @@
+package com.backend.blog.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.backend.blog.payloads.PostImportReport;
+
+public interface PostImportService {
+
+	// one PostImportRecord per line, read as a stream
+	PostImportReport importPosts(InputStream ndjson) throws IOException;
+
+}
@@ -23,6 +23,10 @@ public interface PostService {
 	
 	PostResponse getAllPost(Integer pageNumber,Integer pageSize,String sortBy,String sortDir);
 	
+	//get all posts using keyset pagination, after is the cursor of the previous page (empty for the first page)
+	
+	PostResponse getAllPostAfter(String after,Integer pageSize,String sortBy,String sortDir);
+	
 	//get single post
 	
 	PostDto getPostById(Integer postId);
@@ -34,7 +38,7 @@ public interface PostService {
 	//get all posts by user
 	List<PostDto> getPostsByUser(Integer userId);
 	
-	//search posts
-	List<PostDto> searchPosts(String keyword);
+	//search posts by title and content, best match first
+	PostResponse searchPosts(String keyword,Integer pageNumber,Integer pageSize);
 
 }
@@ -0,0 +1,27 @@
+package com.backend.blog.services.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// in-memory structures (bloom filters, search index, principal cache) must only see changes that were
+// committed: a rolled back delete would otherwise leave them without a row that still exists
+final class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	// runs the action once the current transaction commits, right away when there is none
+	static void run(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+}
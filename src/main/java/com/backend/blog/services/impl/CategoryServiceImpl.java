@@ -3,14 +3,19 @@ package com.backend.blog.services.impl;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.counters.CounterService;
 import com.backend.blog.entities.Category;
 import com.backend.blog.exceptions.ResourceNotFoundException;
+import com.backend.blog.mappers.DtoMapper;
 import com.backend.blog.payloads.CategoryDto;
 import com.backend.blog.repositories.CategoryRepo;
+import com.backend.blog.repositories.PostRepo;
+import com.backend.blog.search.PostSearchIndex;
 import com.backend.blog.services.CategoryService;
 
 @Service
@@ -20,13 +25,25 @@ public class CategoryServiceImpl implements CategoryService {
 	private CategoryRepo categoryRepo;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private DtoMapper dtoMapper;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private PostRepo postRepo;
+
+	@Autowired
+	private PostSearchIndex postSearchIndex;
+
+	@Autowired
+	private BloomFilterService bloomFilterService;
 
 	@Override
 	public CategoryDto createCategory(CategoryDto categoryDto) {
-		Category cat = this.modelMapper.map(categoryDto, Category.class);
+		Category cat = this.dtoMapper.toCategory(categoryDto);
 		Category addedCat = this.categoryRepo.save(cat);
-		return this.modelMapper.map(addedCat, CategoryDto.class);
+		return this.dtoMapper.toCategoryDto(addedCat);
 	}
 
 	@Override
@@ -40,15 +57,24 @@ public class CategoryServiceImpl implements CategoryService {
 
 		Category updatedcat = this.categoryRepo.save(cat);
 
-		return this.modelMapper.map(updatedcat, CategoryDto.class);
+		return this.dtoMapper.toCategoryDto(updatedcat);
 	}
 
 	@Override
+	@Transactional
 	public void deleteCategory(Integer categoryId) {
 
 		Category cat = this.categoryRepo.findById(categoryId)
 				.orElseThrow(() -> new ResourceNotFoundException("Category ", "category id", categoryId));
+		List<Integer> postIds = this.postRepo.findPostIdsByCategoryId(categoryId);
+		List<String> postTitles = this.postRepo.findTitlesByCategoryId(categoryId);
+		// the category's posts are deleted with it
+		this.counterService.releasePostsOfCategory(categoryId);
 		this.categoryRepo.delete(cat);
+		AfterCommit.run(() -> {
+			postIds.forEach(postSearchIndex::remove);
+			postTitles.forEach(bloomFilterService::removePostTitle);
+		});
 	}
 
 	@Override
@@ -56,14 +82,14 @@ public class CategoryServiceImpl implements CategoryService {
 		Category cat = this.categoryRepo.findById(categoryId)
 				.orElseThrow(() -> new ResourceNotFoundException("Category", "category id", categoryId));
 
-		return this.modelMapper.map(cat, CategoryDto.class);
+		return this.dtoMapper.toCategoryDto(cat);
 	}
 
 	@Override
 	public List<CategoryDto> getCategories() {
 
 		List<Category> categories = this.categoryRepo.findAll();
-		List<CategoryDto> catDtos = categories.stream().map((cat) -> this.modelMapper.map(cat, CategoryDto.class))
+		List<CategoryDto> catDtos = categories.stream().map((cat) -> this.dtoMapper.toCategoryDto(cat))
 				.collect(Collectors.toList());
 
 		return catDtos;
@@ -1,13 +1,23 @@
 package com.backend.blog.services.impl;
 
-import org.modelmapper.ModelMapper;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.backend.blog.counters.CounterService;
 import com.backend.blog.entities.Comment;
 import com.backend.blog.entities.Post;
+import com.backend.blog.exceptions.ApiException;
 import com.backend.blog.exceptions.ResourceNotFoundException;
+import com.backend.blog.mappers.DtoMapper;
 import com.backend.blog.payloads.CommentDto;
+import com.backend.blog.payloads.CommentResponse;
+import com.backend.blog.payloads.PostCommentDto;
 import com.backend.blog.repositories.CommentRepo;
 import com.backend.blog.repositories.PostRepo;
 import com.backend.blog.services.CommentService;
@@ -22,29 +32,64 @@ public class CommentServiceImpl implements CommentService {
 	private CommentRepo commentRepo;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private DtoMapper dtoMapper;
+
+	@Autowired
+	private CounterService counterService;
 
 	@Override
+	@Transactional
 	public CommentDto createComment(CommentDto commentDto, Integer postId) {
 
 		Post post = this.postRepo.findById(postId)
 				.orElseThrow(() -> new ResourceNotFoundException("Post", "post id ", postId));
 
-		Comment comment = this.modelMapper.map(commentDto, Comment.class);
+		Comment comment = this.dtoMapper.toComment(commentDto);
 
 		comment.setPost(post);
+		comment.setClientId(UUID.randomUUID().toString());
 
 		Comment savedComment = this.commentRepo.save(comment);
+		this.counterService.adjustCommentCount(postId, 1);
 
-		return this.modelMapper.map(savedComment, CommentDto.class);
+		return this.dtoMapper.toCommentDto(savedComment);
 	}
 
 	@Override
+	@Transactional
 	public void deleteComment(Integer commentId) {
 
 		Comment com = this.commentRepo.findById(commentId)
 				.orElseThrow(() -> new ResourceNotFoundException("Comment", "CommentId", commentId));
 		this.commentRepo.delete(com);
+		this.counterService.adjustCommentCount(com.getPost().getPostId(), -1);
+	}
+
+	@Override
+	public CommentResponse getCommentsByPost(Integer postId, Integer after, Integer pageSize) {
+
+		if (pageSize == null || pageSize < 1) {
+			throw new ApiException("pageSize must be at least 1.");
+		}
+
+		if (!this.postRepo.existsById(postId)) {
+			throw new ResourceNotFoundException("Post", "post id ", postId);
+		}
+
+		// one extra row tells whether another page follows, no count query needed
+		List<PostCommentDto> rows = this.commentRepo.findPageByPostId(postId, after == null ? 0 : after,
+				PageRequest.of(0, pageSize + 1));
+		boolean lastPage = rows.size() <= pageSize;
+		if (!lastPage) {
+			rows = rows.subList(0, pageSize);
+		}
+
+		CommentResponse commentResponse = new CommentResponse();
+		commentResponse.setContent(rows.stream().map(PostCommentDto::toCommentDto).collect(Collectors.toList()));
+		commentResponse.setPageSize(pageSize);
+		commentResponse.setLastPage(lastPage);
+		commentResponse.setNextCursor(lastPage || rows.isEmpty() ? null : rows.get(rows.size() - 1).getId());
+		return commentResponse;
 	}
 
 }
@@ -1,8 +1,6 @@
 package com.backend.blog.services.impl;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -11,15 +9,24 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.backend.blog.images.ContentAddressedImageStore;
+import com.backend.blog.images.ImageVariantService;
 import com.backend.blog.services.FileService;
 
 @Service
 public class FileServiceImpl implements FileService {
 
+	@Autowired
+	private ImageVariantService imageVariantService;
+
+	@Autowired
+	private ContentAddressedImageStore contentAddressedImageStore;
+
 	@Override
 	public String uploadImage(String path, MultipartFile file) throws IOException {
 
@@ -30,13 +37,6 @@ public class FileServiceImpl implements FileService {
 		}
 		String extension = originalName.substring(originalName.lastIndexOf("."));
 
-		// random name generate file
-		String randomID = UUID.randomUUID().toString();
-		String fileName1 = randomID.concat(extension);
-
-		// Full path
-		Path destinationPath = Paths.get(path, fileName1);
-
 		// create folder if not created
 		File directory = new File(path);
 		if (!directory.exists()) {
@@ -45,21 +45,28 @@ public class FileServiceImpl implements FileService {
 			}
 		}
 
+		// identical uploads share one file named after their sha-256
+		if (this.contentAddressedImageStore.isEnabled()) {
+			return this.contentAddressedImageStore.store(path, file, extension);
+		}
+
+		// random name generate file
+		String randomID = UUID.randomUUID().toString();
+		String fileName1 = randomID.concat(extension);
+
+		// Full path
+		Path destinationPath = Paths.get(path, fileName1);
+
 		// file copy
 
 		try (InputStream inputStream = file.getInputStream()) {
 			Files.copy(inputStream, destinationPath, StandardCopyOption.REPLACE_EXISTING);
 		}
 
-		return fileName1;
-	}
+		// thumbnails and resized copies are produced in the background
+		this.imageVariantService.generateAsync(path, fileName1);
 
-	@Override
-	public InputStream getResource(String path, String fileName) throws FileNotFoundException {
-		String fullPath = path + File.separator + fileName;
-		InputStream is = new FileInputStream(fullPath);
-		// db logic to return inpustream
-		return is;
+		return fileName1;
 	}
 
 }
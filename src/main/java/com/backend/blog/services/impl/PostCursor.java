@@ -0,0 +1,90 @@
+package com.backend.blog.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.backend.blog.entities.Post;
+import com.backend.blog.exceptions.ApiException;
+
+/**
+ * Opaque position of the last post of a page, used for keyset pagination.
+ * Encoded as base64url of {@code sortBy|sortDir|postId|sortValue}.
+ */
+final class PostCursor {
+
+    static final String SORT_POST_ID = "postId";
+    static final String SORT_TITLE = "title";
+    static final String SORT_ADDED_DATE = "addedDate";
+
+    private final String sortBy;
+    private final boolean ascending;
+    private final Integer postId;
+    private final String value;
+
+    private PostCursor(String sortBy, boolean ascending, Integer postId, String value) {
+        this.sortBy = sortBy;
+        this.ascending = ascending;
+        this.postId = postId;
+        this.value = value;
+    }
+
+    static boolean isSupportedSort(String sortBy) {
+        return SORT_POST_ID.equals(sortBy) || SORT_TITLE.equals(sortBy) || SORT_ADDED_DATE.equals(sortBy);
+    }
+
+    static PostCursor of(Post post, String sortBy, boolean ascending) {
+        String value;
+        if (SORT_TITLE.equals(sortBy)) {
+            value = post.getTitle();
+        } else if (SORT_ADDED_DATE.equals(sortBy)) {
+            value = post.getAddedDate() == null ? "" : String.valueOf(post.getAddedDate().getTime());
+        } else {
+            value = "";
+        }
+        return new PostCursor(sortBy, ascending, post.getPostId(), value);
+    }
+
+    static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !isSupportedSort(parts[0])) {
+                throw new ApiException("Invalid page cursor.");
+            }
+            PostCursor decoded = new PostCursor(parts[0], "asc".equals(parts[1]), Integer.valueOf(parts[2]), parts[3]);
+            if (SORT_ADDED_DATE.equals(decoded.sortBy)) {
+                Long.parseLong(decoded.value);
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid page cursor.");
+        }
+    }
+
+    String encode() {
+        String raw = sortBy + "|" + (ascending ? "asc" : "desc") + "|" + postId + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    String getSortBy() {
+        return sortBy;
+    }
+
+    boolean isAscending() {
+        return ascending;
+    }
+
+    Integer getPostId() {
+        return postId;
+    }
+
+    String getTitle() {
+        return value;
+    }
+
+    Date getAddedDate() {
+        return new Date(Long.parseLong(value));
+    }
+
+}
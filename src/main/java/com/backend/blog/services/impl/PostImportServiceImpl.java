@@ -0,0 +1,305 @@
+package com.backend.blog.services.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.entities.Post;
+import com.backend.blog.payloads.PostImportRecord;
+import com.backend.blog.payloads.PostImportReport;
+import com.backend.blog.repositories.CategoryRepo;
+import com.backend.blog.repositories.UserRepo;
+import com.backend.blog.search.PostSearchIndex;
+import com.backend.blog.services.PostImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams an NDJSON body into posts, one batch at a time. Per batch the titles
+ * go through the bloom filter together, authors and categories are resolved
+ * with one id query each (and remembered for the rest of the import), and the
+ * rows are written with a single JDBC batch in one transaction.
+ * <p>
+ * Hibernate cannot batch inserts of IDENTITY ids, which is why the insert is
+ * plain JDBC; the generated keys are read back for the search index.
+ */
+@Service
+public class PostImportServiceImpl implements PostImportService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PostImportServiceImpl.class);
+
+	private static final String INSERT = "insert into posts (post_title, content, image_name, added_date, category_id, user_id) "
+			+ "values (?, ?, ?, ?, ?, ?)";
+
+	private static final int MAX_TITLE_LENGTH = 100;
+
+	@Value("${post.import.batchSize:500}")
+	private int batchSize;
+
+	@Value("${post.import.maxReportedErrors:100}")
+	private int maxReportedErrors;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private CategoryRepo categoryRepo;
+
+	@Autowired
+	private BloomFilterService bloomFilterService;
+
+	@Autowired
+	private PostSearchIndex postSearchIndex;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Override
+	public PostImportReport importPosts(InputStream ndjson) throws IOException {
+		long started = System.nanoTime();
+		ImportRun run = new ImportRun();
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+		List<ImportLine> batch = new ArrayList<>(batchSize);
+		String text;
+		long lineNumber = 0;
+		while ((text = reader.readLine()) != null) {
+			lineNumber++;
+			if (!StringUtils.hasText(text)) {
+				continue;
+			}
+			run.report.setReceived(run.report.getReceived() + 1);
+			try {
+				batch.add(new ImportLine(lineNumber, this.objectMapper.readValue(text, PostImportRecord.class)));
+			} catch (JsonProcessingException e) {
+				run.reject(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+				continue;
+			}
+			if (batch.size() >= batchSize) {
+				this.importBatch(batch, run);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			this.importBatch(batch, run);
+		}
+
+		PostImportReport report = run.report;
+		long elapsedNanos = System.nanoTime() - started;
+		report.setDurationMs(elapsedNanos / 1_000_000);
+		report.setPostsPerSecond(elapsedNanos == 0 ? 0 : report.getImported() * 1_000_000_000.0 / elapsedNanos);
+		LOGGER.info("Post import: {} received, {} imported, {} failed in {} ms", report.getReceived(),
+				report.getImported(), report.getFailed(), report.getDurationMs());
+		return report;
+	}
+
+	private void importBatch(List<ImportLine> batch, ImportRun run) {
+		List<ImportLine> valid = new ArrayList<>(batch.size());
+		for (ImportLine line : batch) {
+			String error = this.validate(line.record, run);
+			if (error != null) {
+				run.reject(line.number, line.record.getTitle(), error);
+			} else {
+				valid.add(line);
+			}
+		}
+
+		this.rejectWhere(valid, run, this.usedTitles(valid), line -> line.record.getTitle().toLowerCase(),
+				"Post title already exists.");
+		this.rejectWhere(valid, run, this.missingIds(valid, run.missingUsers, run.knownUsers,
+				line -> line.record.getUserId(), this.userRepo::findExistingIds),
+				line -> line.record.getUserId(), "User not found.");
+		this.rejectWhere(valid, run, this.missingIds(valid, run.missingCategories, run.knownCategories,
+				line -> line.record.getCategoryId(), this.categoryRepo::findExistingIds),
+				line -> line.record.getCategoryId(), "Category not found.");
+		if (valid.isEmpty()) {
+			return;
+		}
+
+		List<Integer> postIds;
+		try {
+			postIds = new TransactionTemplate(this.transactionManager).execute(status -> this.insert(valid));
+		} catch (DataAccessException e) {
+			LOGGER.warn("Post import batch of {} failed: {}", valid.size(), e.getMessage());
+			valid.forEach(line -> run.reject(line.number, line.record.getTitle(),
+					"Batch insert failed: " + e.getMostSpecificCause().getMessage()));
+			return;
+		}
+
+		// committed, now make the posts visible to title checks and search
+		for (int i = 0; i < valid.size(); i++) {
+			PostImportRecord record = valid.get(i).record;
+			this.bloomFilterService.recordPostTitle(record.getTitle());
+			if (i < postIds.size()) {
+				Post post = new Post();
+				post.setPostId(postIds.get(i));
+				post.setTitle(record.getTitle());
+				post.setContent(record.getContent());
+				this.postSearchIndex.index(post);
+			}
+		}
+		run.report.setImported(run.report.getImported() + valid.size());
+	}
+
+	// null when the record is fine on its own, duplicates within the import count as invalid
+	private String validate(PostImportRecord record, ImportRun run) {
+		if (!StringUtils.hasText(record.getTitle())) {
+			return "Title is required.";
+		}
+		if (record.getTitle().length() > MAX_TITLE_LENGTH) {
+			return "Title is longer than " + MAX_TITLE_LENGTH + " characters.";
+		}
+		if (record.getUserId() == null || record.getCategoryId() == null) {
+			return "userId and categoryId are required.";
+		}
+		if (!run.seenTitles.add(record.getTitle().toLowerCase())) {
+			return "Title appears more than once in this import.";
+		}
+		return null;
+	}
+
+	private Set<String> usedTitles(List<ImportLine> lines) {
+		if (lines.isEmpty()) {
+			return new HashSet<>();
+		}
+		return this.bloomFilterService
+				.findUsedPostTitles(lines.stream().map(line -> line.record.getTitle()).collect(Collectors.toList()));
+	}
+
+	// ids not seen before in this import are looked up together, the answer is kept for later batches
+	private Set<Integer> missingIds(List<ImportLine> lines, Set<Integer> missing, Set<Integer> known,
+			Function<ImportLine, Integer> id, Function<Set<Integer>, List<Integer>> findExisting) {
+		Set<Integer> unresolved = lines.stream().map(id)
+				.filter(value -> !known.contains(value) && !missing.contains(value)).collect(Collectors.toSet());
+		if (!unresolved.isEmpty()) {
+			List<Integer> existing = findExisting.apply(unresolved);
+			known.addAll(existing);
+			unresolved.removeAll(existing);
+			missing.addAll(unresolved);
+		}
+		return missing;
+	}
+
+	private <T> void rejectWhere(List<ImportLine> lines, ImportRun run, Set<T> rejected,
+			Function<ImportLine, T> key, String message) {
+		if (rejected.isEmpty()) {
+			return;
+		}
+		Iterator<ImportLine> iterator = lines.iterator();
+		while (iterator.hasNext()) {
+			ImportLine line = iterator.next();
+			if (rejected.contains(key.apply(line))) {
+				run.reject(line.number, line.record.getTitle(), message);
+				iterator.remove();
+			}
+		}
+	}
+
+	private List<Integer> insert(List<ImportLine> lines) {
+		Date now = new Date();
+		List<Integer> postIds = this.jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+			try (PreparedStatement ps = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+				for (ImportLine line : lines) {
+					PostImportRecord record = line.record;
+					Date addedDate = record.getAddedDate() != null ? record.getAddedDate() : now;
+					ps.setString(1, record.getTitle());
+					ps.setString(2, record.getContent());
+					ps.setString(3, record.getImageName() != null ? record.getImageName() : "default.png");
+					ps.setTimestamp(4, new Timestamp(addedDate.getTime()));
+					ps.setInt(5, record.getCategoryId());
+					ps.setInt(6, record.getUserId());
+					ps.addBatch();
+				}
+				ps.executeBatch();
+
+				List<Integer> keys = new ArrayList<>(lines.size());
+				try (ResultSet generated = ps.getGeneratedKeys()) {
+					while (generated.next()) {
+						keys.add(generated.getInt(1));
+					}
+				}
+				return keys;
+			}
+		});
+
+		// one counter update per category and author, in id order to keep the row lock order stable
+		Map<Integer, Long> perCategory = lines.stream().collect(Collectors
+				.groupingBy(line -> line.record.getCategoryId(), TreeMap::new, Collectors.counting()));
+		perCategory.forEach(this.counterService::adjustCategoryPostCount);
+		Map<Integer, Long> perUser = lines.stream().collect(
+				Collectors.groupingBy(line -> line.record.getUserId(), TreeMap::new, Collectors.counting()));
+		perUser.forEach(this.counterService::adjustUserPostCount);
+		return postIds;
+	}
+
+	private static class ImportLine {
+
+		private final long number;
+		private final PostImportRecord record;
+
+		private ImportLine(long number, PostImportRecord record) {
+			this.number = number;
+			this.record = record;
+		}
+	}
+
+	// state of one import call
+	private class ImportRun {
+
+		private final PostImportReport report = new PostImportReport();
+		private final Set<String> seenTitles = new HashSet<>();
+		private final Set<Integer> knownUsers = new HashSet<>();
+		private final Set<Integer> missingUsers = new HashSet<>();
+		private final Set<Integer> knownCategories = new HashSet<>();
+		private final Set<Integer> missingCategories = new HashSet<>();
+
+		private void reject(long line, String title, String message) {
+			this.report.setFailed(this.report.getFailed() + 1);
+			if (this.report.getErrors().size() < maxReportedErrors) {
+				this.report.getErrors().add(new PostImportReport.RecordError(line, title, message));
+			} else {
+				this.report.setErrorsTruncated(true);
+			}
+		}
+	}
+
+}
@@ -1,28 +1,40 @@
 package com.backend.blog.services.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.counters.CounterService;
 import com.backend.blog.entities.Category;
 import com.backend.blog.entities.Post;
 import com.backend.blog.entities.User;
 import com.backend.blog.exceptions.ResourceNotFoundException;
 import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.payloads.PostCommentDto;
 import com.backend.blog.payloads.PostDto;
 import com.backend.blog.payloads.PostResponse;
 import com.backend.blog.repositories.CategoryRepo;
+import com.backend.blog.repositories.CommentRepo;
 import com.backend.blog.repositories.PostRepo;
 import com.backend.blog.repositories.UserRepo;
+import com.backend.blog.search.PostSearchIndex;
 import com.backend.blog.services.PostService;
 
 @Service
@@ -32,7 +44,7 @@ public class PostServiceImpl implements PostService {
     private PostRepo postRepo;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private DtoMapper dtoMapper;
 
     @Autowired
     private UserRepo userRepo;
@@ -40,13 +52,31 @@ public class PostServiceImpl implements PostService {
     @Autowired
     private CategoryRepo categoryRepo;
 
+    @Autowired
+    private CommentRepo commentRepo;
+
     @Autowired
     private BloomFilterService bloomFilterService;
 
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private CounterService counterService;
+
+    // comments embedded in each PostDto, the full list is paged separately
+    @Value("${post.comments.preview:3}")
+    private int commentPreviewSize;
+
+    // upper bound for one cursor page, each row also pulls its comment preview
+    @Value("${post.page.maxSize:100}")
+    private int maxPageSize;
+
     @Override
+    @Transactional
     public PostDto createPost(PostDto postDto, Integer userId, Integer categoryId) {
 
-        if (bloomFilterService.isPostTitleProbablyUsed(postDto.getTitle())) {
+        if (bloomFilterService.isPostTitleUsed(postDto.getTitle())) {
             throw new ApiException("Post title already exists. Choose a different title.");
         }
 
@@ -56,19 +86,26 @@ public class PostServiceImpl implements PostService {
         Category category = this.categoryRepo.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "category id ", categoryId));
 
-        Post post = this.modelMapper.map(postDto, Post.class);
+        Post post = this.dtoMapper.toPost(postDto);
         post.setImageName("default.png");
         post.setAddedDate(new Date());
         post.setUser(user);
         post.setCategory(category);
 
         Post newPost = this.postRepo.save(post);
-        bloomFilterService.recordPostTitle(newPost.getTitle());
-
-        return this.modelMapper.map(newPost, PostDto.class);
+        counterService.adjustCategoryPostCount(categoryId, 1);
+        counterService.adjustUserPostCount(userId, 1);
+        AfterCommit.run(() -> {
+            bloomFilterService.recordPostTitle(newPost.getTitle());
+            postSearchIndex.index(newPost);
+        });
+
+        // a new post has no comments yet
+        return this.dtoMapper.toPostDto(newPost);
     }
 
     @Override
+    @Transactional
     public PostDto updatePost(PostDto postDto, Integer postId) {
 
         Post post = this.postRepo.findById(postId)
@@ -81,6 +118,9 @@ public class PostServiceImpl implements PostService {
         Category category = this.categoryRepo.findById(postDto.getCategory().getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "category id ", postDto.getCategory().getCategoryId()));
 
+        String previousTitle = post.getTitle();
+        Integer previousCategoryId = post.getCategory() == null ? null : post.getCategory().getCategoryId();
+
         post.setTitle(postDto.getTitle());
         post.setContent(postDto.getContent());
         post.setImageName(postDto.getImageName());
@@ -88,16 +128,41 @@ public class PostServiceImpl implements PostService {
 
 
         Post updatedPost = this.postRepo.save(post);
-        return this.modelMapper.map(updatedPost, PostDto.class);
+        if (!category.getCategoryId().equals(previousCategoryId)) {
+            if (previousCategoryId != null) {
+                counterService.adjustCategoryPostCount(previousCategoryId, -1);
+            }
+            counterService.adjustCategoryPostCount(category.getCategoryId(), 1);
+        }
+        boolean titleChanged = previousTitle != null && !previousTitle.equalsIgnoreCase(updatedPost.getTitle());
+        AfterCommit.run(() -> {
+            if (titleChanged) {
+                bloomFilterService.removePostTitle(previousTitle);
+                bloomFilterService.recordPostTitle(updatedPost.getTitle());
+            }
+            postSearchIndex.index(updatedPost);
+        });
+        return this.toPostDto(updatedPost);
     }
 
     @Override
+    @Transactional
     public void deletePost(Integer postId) {
 
         Post post = this.postRepo.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post ", "post id", postId));
 
         this.postRepo.delete(post);
+        if (post.getCategory() != null) {
+            counterService.adjustCategoryPostCount(post.getCategory().getCategoryId(), -1);
+        }
+        if (post.getUser() != null) {
+            counterService.adjustUserPostCount(post.getUser().getId(), -1);
+        }
+        AfterCommit.run(() -> {
+            postSearchIndex.remove(postId);
+            bloomFilterService.removePostTitle(post.getTitle());
+        });
 
     }
 
@@ -112,8 +177,7 @@ public class PostServiceImpl implements PostService {
 
         List<Post> allPosts = pagePost.getContent();
 
-        List<PostDto> postDtos = allPosts.stream().map((post) -> this.modelMapper.map(post, PostDto.class))
-                .collect(Collectors.toList());
+        List<PostDto> postDtos = this.toPostDtos(allPosts);
 
         PostResponse postResponse = new PostResponse();
 
@@ -128,11 +192,70 @@ public class PostServiceImpl implements PostService {
         return postResponse;
     }
 
+    @Override
+    public PostResponse getAllPostAfter(String after, Integer pageSize, String sortBy, String sortDir) {
+
+        if (pageSize == null || pageSize < 1) {
+            throw new ApiException("pageSize must be at least 1.");
+        }
+        if (pageSize > maxPageSize) {
+            throw new ApiException("pageSize must be at most " + maxPageSize + ".");
+        }
+
+        PostCursor cursor = StringUtils.hasText(after) ? PostCursor.decode(after) : null;
+        // the cursor carries its own sort so follow-up pages stay consistent
+        String seekBy = cursor != null ? cursor.getSortBy() : sortBy;
+        boolean ascending = cursor != null ? cursor.isAscending() : sortDir.equalsIgnoreCase("asc");
+
+        if (!PostCursor.isSupportedSort(seekBy)) {
+            throw new ApiException("Cursor pagination supports sortBy postId, title or addedDate only.");
+        }
+
+        // fetch one extra row to find out whether there is a next page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Post> posts;
+
+        if (cursor == null) {
+            Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+            Sort sort = PostCursor.SORT_POST_ID.equals(seekBy) ? Sort.by(direction, seekBy)
+                    : Sort.by(direction, seekBy, PostCursor.SORT_POST_ID);
+            posts = this.postRepo.findAllBy(PageRequest.of(0, pageSize + 1, sort));
+        } else if (PostCursor.SORT_TITLE.equals(seekBy)) {
+            posts = ascending ? this.postRepo.findPageAfterTitleAsc(cursor.getTitle(), cursor.getPostId(), limit)
+                    : this.postRepo.findPageAfterTitleDesc(cursor.getTitle(), cursor.getPostId(), limit);
+        } else if (PostCursor.SORT_ADDED_DATE.equals(seekBy)) {
+            posts = ascending
+                    ? this.postRepo.findPageAfterAddedDateAsc(cursor.getAddedDate(), cursor.getPostId(), limit)
+                    : this.postRepo.findPageAfterAddedDateDesc(cursor.getAddedDate(), cursor.getPostId(), limit);
+        } else {
+            posts = ascending ? this.postRepo.findPageAfterPostIdAsc(cursor.getPostId(), limit)
+                    : this.postRepo.findPageAfterPostIdDesc(cursor.getPostId(), limit);
+        }
+
+        boolean lastPage = posts.size() <= pageSize;
+        if (!lastPage) {
+            posts = posts.subList(0, pageSize);
+        }
+
+        List<PostDto> postDtos = this.toPostDtos(posts);
+
+        // totalElements / totalPages are not computed in cursor mode, that is the whole point
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(postDtos);
+        postResponse.setPageSize(pageSize);
+        postResponse.setLastPage(lastPage);
+        if (!lastPage) {
+            postResponse.setNextCursor(PostCursor.of(posts.get(posts.size() - 1), seekBy, ascending).encode());
+        }
+
+        return postResponse;
+    }
+
     @Override
     public PostDto getPostById(Integer postId) {
         Post post = this.postRepo.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "post id", postId));
-        return this.modelMapper.map(post, PostDto.class);
+        return this.toPostDto(post);
     }
 
     @Override
@@ -142,8 +265,7 @@ public class PostServiceImpl implements PostService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "category id", categoryId));
         List<Post> posts = this.postRepo.findByCategory(cat);
 
-        List<PostDto> postDtos = posts.stream().map((post) -> this.modelMapper.map(post, PostDto.class))
-                .collect(Collectors.toList());
+        List<PostDto> postDtos = this.toPostDtos(posts);
 
         return postDtos;
     }
@@ -155,17 +277,65 @@ public class PostServiceImpl implements PostService {
                 .orElseThrow(() -> new ResourceNotFoundException("User ", "userId ", userId));
         List<Post> posts = this.postRepo.findByUser(user);
 
-        List<PostDto> postDtos = posts.stream().map((post) -> this.modelMapper.map(post, PostDto.class))
-                .collect(Collectors.toList());
+        List<PostDto> postDtos = this.toPostDtos(posts);
 
         return postDtos;
     }
 
     @Override
-    public List<PostDto> searchPosts(String keyword) {
-        List<Post> posts = this.postRepo.searchByTitle("%" + keyword + "%");
-        List<PostDto> postDtos = posts.stream().map((post) -> this.modelMapper.map(post, PostDto.class)).collect(Collectors.toList());
-        return postDtos;
+    public PostResponse searchPosts(String keyword, Integer pageNumber, Integer pageSize) {
+
+        if (pageSize == null || pageSize < 1) {
+            throw new ApiException("pageSize must be at least 1.");
+        }
+        if (pageNumber == null || pageNumber < 0) {
+            throw new ApiException("pageNumber must not be negative.");
+        }
+
+        PostSearchIndex.SearchHits hits = this.postSearchIndex.search(keyword, pageNumber, pageSize);
+
+        // load the page in one query and put it back into rank order
+        Map<Integer, Post> postsById = this.postRepo.findByPostIdIn(hits.getPostIds()).stream()
+                .collect(Collectors.toMap(Post::getPostId, Function.identity()));
+        List<Post> posts = hits.getPostIds().stream().map(postsById::get).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        List<PostDto> postDtos = this.toPostDtos(posts);
+
+        int totalPages = (int) ((hits.getTotalHits() + pageSize - 1) / pageSize);
+
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(postDtos);
+        postResponse.setPageNumber(pageNumber);
+        postResponse.setPageSize(pageSize);
+        postResponse.setTotalElements(hits.getTotalHits());
+        postResponse.setTotalPages(totalPages);
+        postResponse.setLastPage(pageNumber >= totalPages - 1);
+
+        return postResponse;
+    }
+
+    private PostDto toPostDto(Post post) {
+        return this.toPostDtos(Collections.singletonList(post)).get(0);
+    }
+
+    // the mapper never touches Post.comments, comment previews and counts of the whole page come from one
+    // projection query
+    private List<PostDto> toPostDtos(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> postIds = posts.stream().map(Post::getPostId).collect(Collectors.toList());
+        Map<Integer, List<PostCommentDto>> commentsByPost = this.commentRepo
+                .findPreviewsByPostIds(postIds, commentPreviewSize).stream()
+                .collect(Collectors.groupingBy(PostCommentDto::getPostId));
+
+        return posts.stream().map((post) -> {
+            PostDto postDto = this.dtoMapper.toPostDto(post);
+            List<PostCommentDto> previews = commentsByPost.getOrDefault(post.getPostId(), Collections.emptyList());
+            previews.forEach((comment) -> postDto.getComments().add(comment.toCommentDto()));
+            return postDto;
+        }).collect(Collectors.toList());
     }
 
 }
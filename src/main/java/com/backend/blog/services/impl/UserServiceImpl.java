@@ -4,17 +4,22 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.counters.CounterService;
 import com.backend.blog.entities.AuthProvider;
 import com.backend.blog.entities.Role;
 import com.backend.blog.entities.User;
 import com.backend.blog.exceptions.ApiException;
 import com.backend.blog.exceptions.ResourceNotFoundException;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.repositories.PostRepo;
 import com.backend.blog.repositories.RoleRepo;
 import com.backend.blog.repositories.UserRepo;
-import org.modelmapper.ModelMapper;
+import com.backend.blog.search.PostSearchIndex;
+import com.backend.blog.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import com.backend.blog.payloads.UserDto;
@@ -28,7 +33,7 @@ public class UserServiceImpl implements UserService {
 	private UserRepo userRepo;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private DtoMapper dtoMapper;
 
 	@Autowired
 	private PasswordEncoder passwordEncoder;
@@ -36,9 +41,21 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	private RoleRepo roleRepo;
 
+	@Autowired
+	private PostRepo postRepo;
+
 	@Autowired
 	private BloomFilterService bloomFilterService;
 
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private PostSearchIndex postSearchIndex;
+
 	@Override
 	public UserDto createUser(UserDto userDto) {
 		validateEmailUniqueness(userDto.getEmail());
@@ -58,6 +75,7 @@ public class UserServiceImpl implements UserService {
 		User user = this.userRepo.findById(userId)
 				.orElseThrow(() -> new ResourceNotFoundException("User", " Id ", userId));
 
+		String previousEmail = user.getEmail();
 		boolean emailChanged = userDto.getEmail() != null
 				&& !userDto.getEmail().equalsIgnoreCase(user.getEmail());
 		if (emailChanged) {
@@ -70,7 +88,10 @@ public class UserServiceImpl implements UserService {
 		user.setAbout(userDto.getAbout());
 
 		User updatedUser = this.userRepo.save(user);
+		principalCache.invalidate(previousEmail);
+		principalCache.invalidate(updatedUser.getEmail());
 		if (emailChanged) {
+			bloomFilterService.removeEmail(previousEmail);
 			bloomFilterService.recordEmail(updatedUser.getEmail());
 		}
 		UserDto userDto1 = this.userToDto(updatedUser);
@@ -96,18 +117,27 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
+	@Transactional
 	public void deleteUser(Integer userId) {
 		User user = this.userRepo.findById(userId)
 				.orElseThrow(() -> new ResourceNotFoundException("User", "Id", userId));
+		List<String> postTitles = this.postRepo.findTitlesByUserId(userId);
+		List<Integer> postIds = this.postRepo.findPostIdsByUserId(userId);
+		// the user's posts are deleted with it
+		counterService.releasePostsOfUser(userId);
 		this.userRepo.delete(user);
+		AfterCommit.run(() -> {
+			principalCache.invalidate(user.getEmail());
+			bloomFilterService.removeEmail(user.getEmail());
+			postTitles.forEach(bloomFilterService::removePostTitle);
+			postIds.forEach(postSearchIndex::remove);
+		});
 
 	}
 
 	public User dtoToUser(UserDto userDto) {
-		User user = this.modelMapper.map(userDto, User.class);
-		if (user.getProvider() == null) {
-			user.setProvider(AuthProvider.LOCAL);
-		}
+		User user = this.dtoMapper.toUser(userDto);
+		user.setProvider(AuthProvider.LOCAL);
 		user.setEmailVerified(false);
 
 		// user.setId(userDto.getId());
@@ -119,7 +149,7 @@ public class UserServiceImpl implements UserService {
 	}
 
 	public UserDto userToDto(User user) {
-		UserDto userDto = this.modelMapper.map(user, UserDto.class);
+		UserDto userDto = this.dtoMapper.toUserDto(user);
 		return userDto;
 	}
 
@@ -128,7 +158,7 @@ public class UserServiceImpl implements UserService {
 
 		validateEmailUniqueness(userDto.getEmail());
 
-		User user = this.modelMapper.map(userDto, User.class);
+		User user = this.dtoMapper.toUser(userDto);
 
 		// encoded the password
 		applyPasswordIfPresent(user, userDto.getPassword());
@@ -140,11 +170,11 @@ public class UserServiceImpl implements UserService {
 		User newUser = this.userRepo.save(user);
 		bloomFilterService.recordEmail(newUser.getEmail());
 
-		return this.modelMapper.map(newUser, UserDto.class);
+		return this.dtoMapper.toUserDto(newUser);
 	}
 
 	private void validateEmailUniqueness(String email) {
-		if (bloomFilterService.isEmailProbablyRegistered(email)) {
+		if (bloomFilterService.isEmailRegistered(email)) {
 			throw new ApiException("Email already registered. Please sign in instead.");
 		}
 	}
@@ -0,0 +1,113 @@
+package com.backend.blog.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.backend.blog.config.AppConstants;
+import com.backend.blog.entities.Category;
+import com.backend.blog.entities.Post;
+import com.backend.blog.entities.Role;
+import com.backend.blog.entities.User;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.payloads.PostDto;
+
+/**
+ * Maps a page of 100 posts (with category, author and roles) to PostDto with
+ * ModelMapper, as the app used to, and with the hand written DtoMapper.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.backend.blog.benchmarks.DtoMapperBenchmark} or from
+ * the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMapperBenchmark {
+
+	private static final int PAGE_SIZE = 100;
+
+	private ModelMapper modelMapper;
+
+	private DtoMapper dtoMapper;
+
+	private List<Post> page;
+
+	@Setup
+	public void setUp() {
+		modelMapper = new ModelMapper();
+		modelMapper.typeMap(Post.class, PostDto.class).addMappings(mapper -> mapper.skip(PostDto::setComments));
+		dtoMapper = new DtoMapper();
+
+		Role role = new Role();
+		role.setId(AppConstants.NORMAL_USER);
+		role.setName("ROLE_NORMAL");
+
+		page = new ArrayList<>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			Category category = new Category();
+			category.setCategoryId(i % 10);
+			category.setCategoryTitle("category " + (i % 10));
+			category.setCategoryDescription("category description " + (i % 10));
+
+			User user = new User();
+			user.setId(i % 25);
+			user.setName("user " + (i % 25));
+			user.setEmail("user" + (i % 25) + "@example.com");
+			user.setAbout("about user " + (i % 25));
+			user.getRoles().add(role);
+
+			Post post = new Post();
+			post.setPostId(i);
+			post.setTitle("post title " + i);
+			post.setContent("post content " + i);
+			post.setImageName("default.png");
+			post.setAddedDate(new Date());
+			post.setCategory(category);
+			post.setUser(user);
+			page.add(post);
+		}
+	}
+
+	@Benchmark
+	public List<PostDto> modelMapper() {
+		List<PostDto> postDtos = new ArrayList<>(PAGE_SIZE);
+		for (Post post : page) {
+			postDtos.add(modelMapper.map(post, PostDto.class));
+		}
+		return postDtos;
+	}
+
+	@Benchmark
+	public List<PostDto> dtoMapper() {
+		List<PostDto> postDtos = new ArrayList<>(PAGE_SIZE);
+		for (Post post : page) {
+			postDtos.add(dtoMapper.toPostDto(post));
+		}
+		return postDtos;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(DtoMapperBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.backend.blog.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.backend.blog.bloom.CountingBloomFilter;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Per operation cost of the Guava bloom filter the app used to keep emails in
+ * against the deletion-aware CountingBloomFilter, both sized for 50k emails at
+ * 0.0001 and holding 50k entries. {@link #main} also prints the memory each
+ * filter takes.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.backend.blog.benchmarks.MembershipFilterBenchmark} or
+ * from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MembershipFilterBenchmark {
+
+	private static final int EXPECTED_INSERTIONS = 50_000;
+	private static final double FPP = 0.0001;
+
+	private BloomFilter<CharSequence> guava;
+
+	private CountingBloomFilter counting;
+
+	private String[] present;
+
+	private String[] absent;
+
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		guava = BloomFilter.create(Funnels.unencodedCharsFunnel(), EXPECTED_INSERTIONS, FPP);
+		counting = CountingBloomFilter.create(EXPECTED_INSERTIONS, FPP);
+		present = new String[EXPECTED_INSERTIONS];
+		absent = new String[EXPECTED_INSERTIONS];
+		for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+			present[i] = "user" + i + "@example.com";
+			absent[i] = "visitor" + i + "@example.com";
+			guava.put(present[i]);
+			counting.put(present[i]);
+		}
+	}
+
+	private int next() {
+		cursor = (cursor + 1) % EXPECTED_INSERTIONS;
+		return cursor;
+	}
+
+	@Benchmark
+	public boolean guavaMightContainHit() {
+		return guava.mightContain(present[next()]);
+	}
+
+	@Benchmark
+	public boolean guavaMightContainMiss() {
+		return guava.mightContain(absent[next()]);
+	}
+
+	@Benchmark
+	public boolean countingMightContainHit() {
+		return counting.mightContain(present[next()]);
+	}
+
+	@Benchmark
+	public boolean countingMightContainMiss() {
+		return counting.mightContain(absent[next()]);
+	}
+
+	@Benchmark
+	public boolean guavaPut() {
+		return guava.put(present[next()]);
+	}
+
+	// put followed by remove keeps the filter at its steady state size
+	@Benchmark
+	public boolean countingPutAndRemove() {
+		String email = absent[next()];
+		counting.put(email);
+		return counting.remove(email);
+	}
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		MembershipFilterBenchmark state = new MembershipFilterBenchmark();
+		state.setUp();
+		ByteArrayOutputStream guavaBits = new ByteArrayOutputStream();
+		state.guava.writeTo(guavaBits);
+		System.out.printf("guava bloom filter: %d bytes, counting bloom filter: %d bytes%n", guavaBits.size(),
+				state.counting.memoryBytes());
+
+		new Runner(new OptionsBuilder().include(MembershipFilterBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.backend.blog.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.backend.blog.repositories.PostRepo;
+import com.backend.blog.repositories.UserRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// two app nodes sharing the in-memory bus the way real nodes share the http one
+class BloomClusterSyncTest {
+
+	private InMemoryBloomChangeBus bus;
+
+	private BloomFilterService nodeA;
+
+	private BloomFilterService nodeB;
+
+	@BeforeEach
+	void setUp() {
+		bus = new InMemoryBloomChangeBus();
+		nodeA = node("node-a");
+		nodeB = node("node-b");
+	}
+
+	@Test
+	void insertsOnOneNodeAreVisibleOnTheOther() {
+		nodeA.recordPostTitle("Scaling Bloom Filters");
+		nodeB.recordEmail("writer@blog.com");
+
+		assertThat(nodeB.isPostTitleProbablyUsed("scaling bloom filters")).isTrue();
+		assertThat(nodeA.isEmailProbablyRegistered("Writer@Blog.com")).isTrue();
+	}
+
+	@Test
+	void removalsPropagate() {
+		nodeA.recordEmail("gone@blog.com");
+		assertThat(nodeB.isEmailProbablyRegistered("gone@blog.com")).isTrue();
+
+		nodeB.removeEmail("gone@blog.com");
+
+		assertThat(nodeA.isEmailProbablyRegistered("gone@blog.com")).isFalse();
+		assertThat(nodeB.isEmailProbablyRegistered("gone@blog.com")).isFalse();
+	}
+
+	@Test
+	void reconcileDropsChangesAPeerMissed() throws InterruptedException {
+		nodeA.recordEmail("gone@blog.com");
+		// the removal never reached node b, the database no longer has the email
+		bus = new InMemoryBloomChangeBus();
+		ReflectionTestUtils.setField(nodeA, "changeBus", bus);
+		nodeA.removeEmail("gone@blog.com");
+		assertThat(nodeB.isEmailProbablyRegistered("gone@blog.com")).isTrue();
+
+		ReflectionTestUtils.setField(nodeB, "clusterMode", "http");
+		nodeB.reconcile();
+
+		for (int i = 0; i < 50 && nodeB.isEmailProbablyRegistered("gone@blog.com"); i++) {
+			Thread.sleep(100);
+		}
+		assertThat(nodeB.isEmailProbablyRegistered("gone@blog.com")).isFalse();
+	}
+
+	@Test
+	void ownChangesAreNotAppliedTwice() {
+		nodeA.recordPostTitle("Once");
+		nodeA.removePostTitle("Once");
+
+		// applying its own broadcast again would have left the title behind
+		assertThat(nodeA.isPostTitleProbablyUsed("Once")).isFalse();
+	}
+
+	private BloomFilterService node(String nodeId) {
+		UserRepo userRepo = mock(UserRepo.class);
+		PostRepo postRepo = mock(PostRepo.class);
+		when(userRepo.streamAllEmails()).thenAnswer(invocation -> Stream.empty());
+		when(postRepo.streamAllTitles()).thenAnswer(invocation -> Stream.empty());
+
+		BloomFilterService service = new BloomFilterService();
+		ReflectionTestUtils.setField(service, "userRepo", userRepo);
+		ReflectionTestUtils.setField(service, "postRepo", postRepo);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "changeBus", bus);
+		ReflectionTestUtils.setField(service, "nodeId", nodeId);
+		ReflectionTestUtils.setField(service, "emailExpectedInsertions", 1000L);
+		ReflectionTestUtils.setField(service, "emailFalsePositiveProbability", 0.0001);
+		ReflectionTestUtils.setField(service, "postExpectedInsertions", 1000L);
+		ReflectionTestUtils.setField(service, "postFalsePositiveProbability", 0.0001);
+		ReflectionTestUtils.setField(service, "fillThreshold", 0.9);
+		ReflectionTestUtils.setField(service, "snapshotEnabled", false);
+		service.initFilters();
+		return service;
+	}
+
+}
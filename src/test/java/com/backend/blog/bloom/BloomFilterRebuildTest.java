@@ -0,0 +1,103 @@
+package com.backend.blog.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.backend.blog.repositories.PostRepo;
+import com.backend.blog.repositories.UserRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BloomFilterRebuildTest {
+
+	private final UserRepo userRepo = mock(UserRepo.class);
+
+	private final PostRepo postRepo = mock(PostRepo.class);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private BloomFilterService service;
+
+	@BeforeEach
+	void setUp() {
+		when(userRepo.streamAllEmails()).thenAnswer(invocation -> Stream.of("first@blog.com"));
+		when(postRepo.streamAllTitles()).thenAnswer(invocation -> Stream.empty());
+
+		service = new BloomFilterService();
+		ReflectionTestUtils.setField(service, "userRepo", userRepo);
+		ReflectionTestUtils.setField(service, "postRepo", postRepo);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "changeBus", new InMemoryBloomChangeBus());
+		ReflectionTestUtils.setField(service, "nodeId", "node");
+		ReflectionTestUtils.setField(service, "emailExpectedInsertions", 1000L);
+		ReflectionTestUtils.setField(service, "emailFalsePositiveProbability", 0.0001);
+		ReflectionTestUtils.setField(service, "postExpectedInsertions", 1000L);
+		ReflectionTestUtils.setField(service, "postFalsePositiveProbability", 0.0001);
+		ReflectionTestUtils.setField(service, "fillThreshold", 0.9);
+		ReflectionTestUtils.setField(service, "snapshotEnabled", false);
+		service.initFilters();
+
+		// later rebuilds hang in the email stream until released
+		when(userRepo.streamAllEmails()).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return Stream.of("second@blog.com");
+		});
+	}
+
+	@Test
+	void concurrentRequestsStartOneRebuild() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		Callable<Boolean> request = () -> {
+			start.await();
+			return service.rebuildFiltersAsync();
+		};
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(callers.submit(request));
+			}
+			start.countDown();
+			int started = 0;
+			for (Future<Boolean> result : results) {
+				started += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+			}
+			assertThat(started).isEqualTo(1);
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void flagIsSetBeforeTheCallReturnsAndClearedWhenDone() throws InterruptedException {
+		assertThat(service.rebuildFiltersAsync()).isTrue();
+		assertThat(service.isRebuilding()).isTrue();
+		assertThat(service.rebuildFilters()).isFalse();
+
+		release.countDown();
+		for (int i = 0; i < 50 && service.isRebuilding(); i++) {
+			Thread.sleep(100);
+		}
+		assertThat(service.isRebuilding()).isFalse();
+		assertThat(service.isEmailProbablyRegistered("second@blog.com")).isTrue();
+		assertThat(service.rebuildFiltersAsync()).isTrue();
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.backend.blog.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class CountingBloomFilterTest {
+
+	@Test
+	void removedValuesAreNoLongerReported() {
+		CountingBloomFilter filter = CountingBloomFilter.create(10_000, 0.0001);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("title " + i);
+		}
+		for (int i = 0; i < 5_000; i++) {
+			assertThat(filter.remove("title " + i)).isTrue();
+		}
+
+		for (int i = 5_000; i < 10_000; i++) {
+			assertThat(filter.mightContain("title " + i)).isTrue();
+		}
+		int stillReported = 0;
+		for (int i = 0; i < 5_000; i++) {
+			if (filter.mightContain("title " + i)) {
+				stillReported++;
+			}
+		}
+		assertThat(stillReported).isLessThan(5);
+		assertThat(filter.approximateElementCount()).isEqualTo(5_000);
+	}
+
+	@Test
+	void removingAnAbsentValueChangesNothing() throws Exception {
+		CountingBloomFilter filter = CountingBloomFilter.create(100, 0.001);
+		filter.put("kept@mail.com");
+
+		assertThat(filter.remove("never@mail.com")).isFalse();
+		assertThat(filter.mightContain("kept@mail.com")).isTrue();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		filter.writeTo(out);
+		CountingBloomFilter restored = CountingBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertThat(restored.mightContain("kept@mail.com")).isTrue();
+		assertThat(restored.remove("kept@mail.com")).isTrue();
+		assertThat(restored.mightContain("kept@mail.com")).isFalse();
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.backend.blog.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// a local HttpServer stands in for a peer that fails its first request
+class HttpBloomChangeBusTest {
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private final List<String> received = new CopyOnWriteArrayList<>();
+
+	private HttpServer peer;
+
+	private HttpBloomChangeBus bus;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		peer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		peer.createContext(HttpBloomChangeBus.CHANGES_PATH, exchange -> {
+			try (InputStream in = exchange.getRequestBody()) {
+				String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+				if (requests.incrementAndGet() == 1) {
+					exchange.sendResponseHeaders(503, -1);
+					return;
+				}
+				received.add(body);
+				exchange.sendResponseHeaders(200, -1);
+			} finally {
+				exchange.close();
+			}
+		});
+		peer.start();
+
+		meterRegistry = new SimpleMeterRegistry();
+		bus = new HttpBloomChangeBus();
+		ReflectionTestUtils.setField(bus, "peers",
+				new String[] { "http://127.0.0.1:" + peer.getAddress().getPort() });
+		ReflectionTestUtils.setField(bus, "token", "cluster-token");
+		ReflectionTestUtils.setField(bus, "batchSize", 10);
+		ReflectionTestUtils.setField(bus, "queueCapacity", 10);
+		ReflectionTestUtils.setField(bus, "maxAttempts", 3);
+		ReflectionTestUtils.setField(bus, "restTemplateBuilder", new RestTemplateBuilder());
+		ReflectionTestUtils.setField(bus, "meterRegistry", meterRegistry);
+		bus.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		bus.stop();
+		peer.stop(0);
+	}
+
+	@Test
+	void failedBatchIsRetried() throws InterruptedException {
+		bus.publish(new BloomChange("node-a", BloomChange.Type.TITLE_ADDED, "retried title"));
+
+		for (int i = 0; i < 50 && received.isEmpty(); i++) {
+			Thread.sleep(100);
+		}
+		assertThat(requests.get()).isEqualTo(2);
+		assertThat(received).singleElement().asString().contains("retried title");
+		assertThat(meterRegistry.counter("bloom.cluster.changes", "result", "failed").count()).isZero();
+	}
+
+}
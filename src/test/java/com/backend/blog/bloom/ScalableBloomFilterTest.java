@@ -0,0 +1,90 @@
+package com.backend.blog.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class ScalableBloomFilterTest {
+
+	@Test
+	void growsPastInitialCapacityWithoutLosingAccuracy() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.001, 0.9);
+		for (int i = 0; i < 50_000; i++) {
+			filter.put("user" + i + "@mail.com");
+		}
+
+		assertThat(filter.stageCount()).isGreaterThan(1);
+		for (int i = 0; i < 50_000; i++) {
+			assertThat(filter.mightContain("user" + i + "@mail.com")).isTrue();
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain("other" + i + "@mail.com")) {
+				falsePositives++;
+			}
+		}
+		// compound bound is 2 * fpp, a plain filter sized for 1000 would be close to 1.0 here
+		assertThat(falsePositives / 100_000.0).isLessThan(0.003);
+		assertThat(filter.expectedFpp()).isLessThan(0.003);
+	}
+
+	@Test
+	void roundTripsThroughWriteTo() throws Exception {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01, 0.9);
+		for (int i = 0; i < 1000; i++) {
+			filter.put("title " + i);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		filter.writeTo(out);
+
+		ScalableBloomFilter restored = ScalableBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()), 0.9);
+
+		assertThat(restored.stageCount()).isEqualTo(filter.stageCount());
+		assertThat(restored.mightContain("title 999")).isTrue();
+		assertThat(restored.approximateElementCount()).isEqualTo(filter.approximateElementCount());
+	}
+
+	@Test
+	void removesFromTheStageHoldingTheValue() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.001, 0.9);
+		for (int i = 0; i < 1000; i++) {
+			filter.put("user" + i + "@mail.com");
+		}
+
+		assertThat(filter.remove("user3@mail.com")).isTrue();
+		assertThat(filter.remove("user999@mail.com")).isTrue();
+
+		assertThat(filter.mightContain("user3@mail.com")).isFalse();
+		assertThat(filter.mightContain("user999@mail.com")).isFalse();
+		assertThat(filter.mightContain("user500@mail.com")).isTrue();
+	}
+
+	@Test
+	void crossStageFalsePositivesNeverTakeOtherValuesDown() {
+		// loose stages so values of the first stages false-positive in later ones
+		ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.3, 0.9);
+		int values = 300;
+		for (int i = 0; i < values; i++) {
+			filter.put("title " + i);
+		}
+		assertThat(filter.stageCount()).isGreaterThan(3);
+
+		int skipped = 0;
+		for (int i = 0; i < values; i++) {
+			if (!filter.remove("title " + i)) {
+				skipped++;
+			}
+			// every value not removed yet must still be reported
+			for (int j = i + 1; j < values; j++) {
+				assertThat(filter.mightContain("title " + j)).as("title %d after removing title %d", j, i).isTrue();
+			}
+		}
+		// the scenario really happened: some values matched more than one stage
+		assertThat(skipped).isPositive();
+	}
+
+}
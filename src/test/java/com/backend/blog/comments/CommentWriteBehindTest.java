@@ -0,0 +1,195 @@
+package com.backend.blog.comments;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.exceptions.ServiceBusyException;
+import com.backend.blog.payloads.CommentDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// the writer thread needs committed posts, so the test does not run in a rolled back transaction
+@DataJpaTest(properties = { "comments.writeBehind.enabled=true", "comments.writeBehind.queueCapacity=3" })
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({ CommentWriteBehind.class, CounterService.class, CommentWriteBehindTest.Config.class })
+class CommentWriteBehindTest {
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private CommentWriteBehind commentWriteBehind;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Integer postId;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("insert into posts (post_title, content) values ('post', 'content')");
+		postId = jdbcTemplate.queryForObject("select max(post_id) from posts", Integer.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("alter table comments drop constraint if exists no_poison");
+		jdbcTemplate.update("delete from comments");
+		jdbcTemplate.update("delete from posts");
+	}
+
+	@Test
+	void acceptedCommentsAreWrittenInTheBackground() throws InterruptedException {
+		CommentDto comment = new CommentDto();
+		comment.setContent("buffered");
+		CommentDto accepted = commentWriteBehind.enqueue(comment, postId);
+		commentWriteBehind.enqueue(comment, postId);
+		// post that does not exist, dropped instead of failing the batch
+		commentWriteBehind.enqueue(comment, postId + 1000);
+
+		assertThat(accepted.getClientId()).isNotBlank();
+		for (int i = 0; i < 50 && commentCount() < 2; i++) {
+			Thread.sleep(100);
+		}
+		assertThat(commentCount()).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from comments where client_id = ?", Long.class,
+				accepted.getClientId())).isEqualTo(1);
+	}
+
+	@Test
+	void fullQueueAppliesBackpressure() throws InterruptedException {
+		// nothing drains the queue once the writer is stopped
+		commentWriteBehind.stop();
+		CommentDto comment = new CommentDto();
+		comment.setContent("buffered");
+		for (int i = 0; i < 3; i++) {
+			commentWriteBehind.enqueue(comment, postId);
+		}
+
+		assertThatThrownBy(() -> commentWriteBehind.enqueue(comment, postId))
+				.isInstanceOf(ServiceBusyException.class);
+	}
+
+	@Test
+	void invalidContentIsRejectedUpFront() {
+		CommentDto empty = new CommentDto();
+		CommentDto tooLong = new CommentDto();
+		tooLong.setContent("x".repeat(256));
+
+		assertThatThrownBy(() -> commentWriteBehind.enqueue(empty, postId)).isInstanceOf(ApiException.class);
+		assertThatThrownBy(() -> commentWriteBehind.enqueue(tooLong, postId)).isInstanceOf(ApiException.class);
+	}
+
+	@Test
+	void rowTheDatabaseRejectsDoesNotTakeTheBatchDown() throws InterruptedException {
+		// nothing is written until the whole batch is queued
+		commentWriteBehind.stop();
+		jdbcTemplate.execute("alter table comments add constraint no_poison check (content <> 'poison')");
+		for (String content : new String[] { "first", "poison", "second" }) {
+			CommentDto comment = new CommentDto();
+			comment.setContent(content);
+			commentWriteBehind.enqueue(comment, postId);
+		}
+
+		commentWriteBehind.startWriter();
+		for (int i = 0; i < 50 && commentCount() < 2; i++) {
+			Thread.sleep(100);
+		}
+		assertThat(commentCount()).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForList("select content from comments order by id", String.class))
+				.containsExactly("first", "second");
+	}
+
+	@Test
+	void writerSurvivesTransactionsThatCannotBeOpened() throws InterruptedException {
+		PlatformTransactionManager healthy = (PlatformTransactionManager) ReflectionTestUtils
+				.getField(commentWriteBehind, "transactionManager");
+		AtomicBoolean databaseDown = new AtomicBoolean(true);
+		ReflectionTestUtils.setField(commentWriteBehind, "transactionManager", new PlatformTransactionManager() {
+			@Override
+			public TransactionStatus getTransaction(TransactionDefinition definition) {
+				if (databaseDown.get()) {
+					throw new CannotCreateTransactionException("Could not open JPA EntityManager for transaction");
+				}
+				return healthy.getTransaction(definition);
+			}
+
+			@Override
+			public void commit(TransactionStatus status) {
+				healthy.commit(status);
+			}
+
+			@Override
+			public void rollback(TransactionStatus status) {
+				healthy.rollback(status);
+			}
+		});
+		CommentDto comment = new CommentDto();
+		comment.setContent("during the outage");
+		commentWriteBehind.enqueue(comment, postId);
+		Counter failed = meterRegistry.counter("comments.writeBehind", "result", "failed");
+		for (int i = 0; i < 50 && failed.count() < 1; i++) {
+			Thread.sleep(100);
+		}
+		assertThat(failed.count()).isEqualTo(1);
+
+		databaseDown.set(false);
+		comment.setContent("after the outage");
+		commentWriteBehind.enqueue(comment, postId);
+		for (int i = 0; i < 50 && commentCount() < 1; i++) {
+			Thread.sleep(100);
+		}
+		assertThat(commentCount()).isEqualTo(1);
+		assertThat(((Thread) ReflectionTestUtils.getField(commentWriteBehind, "writer")).isAlive()).isTrue();
+	}
+
+	private long commentCount() {
+		return jdbcTemplate.queryForObject("select comment_count from posts where post_id = ?", Long.class, postId);
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.backend.blog.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.backend.blog.comments.CommentWriteBehind;
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.exceptions.GlobalExceptionHandler;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.payloads.PostCommentDto;
+import com.backend.blog.repositories.CommentRepo;
+import com.backend.blog.services.impl.CommentServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CommentController.class, CommentServiceImpl.class, CommentWriteBehind.class, CounterService.class,
+		DtoMapper.class, CommentPagingTest.Config.class })
+class CommentPagingTest {
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private CommentController commentController;
+
+	@Autowired
+	private CommentRepo commentRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MockMvc mockMvc;
+
+	private Integer busyPost;
+
+	private Integer quietPost;
+
+	private Integer emptyPost;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.standaloneSetup(commentController).setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+		busyPost = insertPost("busy", 7);
+		quietPost = insertPost("quiet", 2);
+		emptyPost = insertPost("empty", 0);
+	}
+
+	@Test
+	void commentsArePagedWithACursor() throws Exception {
+		List<Integer> ids = jdbcTemplate.queryForList("select id from comments where post_post_id = ? order by id",
+				Integer.class, busyPost);
+
+		mockMvc.perform(get("/api/v1/post/{postId}/comments", busyPost).param("pageSize", "3")
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(3))
+				.andExpect(jsonPath("$.content[0].content").value("busy 0"))
+				.andExpect(jsonPath("$.lastPage").value(false))
+				.andExpect(jsonPath("$.nextCursor").value(ids.get(2)));
+
+		mockMvc.perform(get("/api/v1/post/{postId}/comments", busyPost).param("pageSize", "3")
+				.param("after", String.valueOf(ids.get(5))).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.content.length()").value(1))
+				.andExpect(jsonPath("$.content[0].content").value("busy 6"))
+				.andExpect(jsonPath("$.lastPage").value(true))
+				.andExpect(jsonPath("$.nextCursor").doesNotExist());
+	}
+
+	@Test
+	void badPagingRequestsAreRejected() throws Exception {
+		mockMvc.perform(get("/api/v1/post/{postId}/comments", busyPost).param("pageSize", "0")
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/post/{postId}/comments", busyPost + 1000).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void previewsStopAtTheLimitPerPost() {
+		Map<Integer, List<String>> previews = commentRepo
+				.findPreviewsByPostIds(List.of(busyPost, quietPost, emptyPost), 3).stream()
+				.collect(Collectors.groupingBy(PostCommentDto::getPostId,
+						Collectors.mapping(PostCommentDto::getContent, Collectors.toList())));
+
+		assertThat(previews.get(busyPost)).containsExactly("busy 0", "busy 1", "busy 2");
+		assertThat(previews.get(quietPost)).containsExactly("quiet 0", "quiet 1");
+		assertThat(previews).doesNotContainKey(emptyPost);
+	}
+
+	private Integer insertPost(String title, int comments) {
+		jdbcTemplate.update("insert into posts (post_title, content) values (?, 'content')", title);
+		Integer postId = jdbcTemplate.queryForObject("select post_id from posts where post_title = ?", Integer.class,
+				title);
+		for (int i = 0; i < comments; i++) {
+			jdbcTemplate.update("insert into comments (content, post_post_id) values (?, ?)", title + " " + i, postId);
+		}
+		return postId;
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.backend.blog.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.blog.config.AppConstants;
+import com.backend.blog.config.PasswordConfig;
+import com.backend.blog.payloads.JwtAuthRequest;
+import com.backend.blog.payloads.JwtAuthResponse;
+import com.backend.blog.security.CustomUserDetailService;
+import com.backend.blog.security.JwtTokenHelper;
+import com.backend.blog.security.PasswordHashingExecutor;
+import com.backend.blog.security.PrincipalCache;
+import com.backend.blog.security.tokens.InMemoryTokenRevocationStore;
+import com.backend.blog.security.tokens.RefreshTokenService;
+import com.backend.blog.services.UserService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// login commits like a real request, so the user is committed rather than living in a test transaction
+@DataJpaTest(properties = "security.password.bcryptStrength=4")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ AuthController.class, JwtTokenHelper.class, RefreshTokenService.class, InMemoryTokenRevocationStore.class,
+		PrincipalCache.class, CustomUserDetailService.class, PasswordHashingExecutor.class, PasswordConfig.class,
+		LoginStatementCountTest.Config.class })
+class LoginStatementCountTest {
+
+	private static final int USER_ID = 9001;
+
+	// the user row with its roles
+	private static final long MAX_STATEMENTS_PER_LOGIN = 2;
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		AuthenticationManager authenticationManager(CustomUserDetailService userDetailService,
+				PasswordEncoder passwordEncoder) {
+			DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+			provider.setUserDetailsService(userDetailService);
+			provider.setUserDetailsPasswordService(userDetailService);
+			provider.setPasswordEncoder(passwordEncoder);
+			return new ProviderManager(provider);
+		}
+	}
+
+	@MockBean
+	private UserService userService;
+
+	@Autowired
+	private AuthController authController;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("insert into users (id, user_name, email, password, about, email_verified) values (?, ?, ?, ?, ?, false)",
+				USER_ID, "login", "login@example.com", new BCryptPasswordEncoder(4).encode("secret"), "about");
+		jdbcTemplate.update("merge into role (id, name) key (id) values (?, ?)", AppConstants.NORMAL_USER,
+				"ROLE_NORMAL");
+		jdbcTemplate.update("insert into user_role (user, role) values (?, ?)", USER_ID, AppConstants.NORMAL_USER);
+
+		// nothing served from the caches, every lookup has to show up
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAllRegions();
+		statistics = sessionFactory.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from user_role where \"user\" = ?", USER_ID);
+		jdbcTemplate.update("delete from users where id = ?", USER_ID);
+	}
+
+	@Test
+	void loginLooksTheUserUpOnce() {
+		JwtAuthRequest request = new JwtAuthRequest();
+		request.setUsername("login@example.com");
+		request.setPassword("secret");
+
+		ResponseEntity<JwtAuthResponse> response = authController.createToken(request);
+
+		assertThat(response.getBody().getToken()).isNotBlank();
+		assertThat(response.getBody().getRefreshToken()).isNotBlank();
+		assertThat(response.getBody().getUser().getId()).isEqualTo(USER_ID);
+		// findByEmail is query cached, a second lookup would show up as a cache hit rather than a statement
+		assertThat(statistics.getQueryExecutionCount() + statistics.getQueryCacheHitCount()).isEqualTo(1);
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_LOGIN);
+	}
+
+	@Test
+	void loginRehashesPasswordsOfAnotherCost() {
+		jdbcTemplate.update("update users set password = ? where id = ?", new BCryptPasswordEncoder(5).encode("secret"),
+				USER_ID);
+		JwtAuthRequest request = new JwtAuthRequest();
+		request.setUsername("login@example.com");
+		request.setPassword("secret");
+
+		ResponseEntity<JwtAuthResponse> response = authController.createToken(request);
+
+		assertThat(response.getBody().getToken()).isNotBlank();
+		assertThat(jdbcTemplate.queryForObject("select password from users where id = ?", String.class, USER_ID))
+				.startsWith("$2a$04$");
+	}
+
+}
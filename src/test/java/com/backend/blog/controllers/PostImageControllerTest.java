@@ -0,0 +1,83 @@
+package com.backend.blog.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.backend.blog.exceptions.GlobalExceptionHandler;
+import com.backend.blog.images.ImageDeliveryService;
+import com.backend.blog.images.ImageVariant;
+import com.backend.blog.images.ImageVariantService;
+
+class PostImageControllerTest {
+
+	private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+	@TempDir
+	Path directory;
+
+	private ImageVariantService imageVariantService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ImageDeliveryService imageDeliveryService = new ImageDeliveryService();
+		ReflectionTestUtils.setField(imageDeliveryService, "cacheControl", IMMUTABLE);
+		ReflectionTestUtils.setField(imageDeliveryService, "fallbackCacheControl", "no-cache");
+
+		imageVariantService = new ImageVariantService();
+
+		PostController postController = new PostController();
+		ReflectionTestUtils.setField(postController, "imageDeliveryService", imageDeliveryService);
+		ReflectionTestUtils.setField(postController, "imageVariantService", imageVariantService);
+		ReflectionTestUtils.setField(postController, "path", directory.toString());
+		mockMvc = MockMvcBuilders.standaloneSetup(postController).setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+
+		ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "png",
+				directory.resolve("photo.png").toFile());
+	}
+
+	@Test
+	void originalIsCachedForGood() throws Exception {
+		mockMvc.perform(get("/api/v1/post/image/photo.png")).andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", IMMUTABLE))
+				.andExpect(header().string("Content-Type", "image/png"));
+	}
+
+	@Test
+	void pendingVariantFallsBackWithoutLongLivedCaching() throws Exception {
+		mockMvc.perform(get("/api/v1/post/image/photo.png").param("size", "thumb")).andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andExpect(header().string("Content-Type", "image/png"));
+
+		// what the variant worker leaves behind once it is done
+		Path thumb = imageVariantService.variantPath(directory.toString(), "photo.png", ImageVariant.THUMB);
+		Files.createDirectories(thumb.getParent());
+		ImageIO.write(new BufferedImage(160, 80, BufferedImage.TYPE_INT_RGB), "jpeg", thumb.toFile());
+
+		mockMvc.perform(get("/api/v1/post/image/photo.png").param("size", "thumb")).andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", IMMUTABLE))
+				.andExpect(header().string("Content-Type", "image/jpeg"));
+	}
+
+	@Test
+	void unknownSizeIsRejected() throws Exception {
+		mockMvc.perform(get("/api/v1/post/image/photo.png").param("size", "huge")).andExpect(status().isBadRequest());
+	}
+
+}
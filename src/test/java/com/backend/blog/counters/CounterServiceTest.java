@@ -0,0 +1,129 @@
+package com.backend.blog.counters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.backend.blog.entities.Category;
+import com.backend.blog.entities.Post;
+import com.backend.blog.entities.User;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.payloads.CommentDto;
+import com.backend.blog.services.impl.CommentServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CounterService.class, CommentServiceImpl.class, DtoMapper.class, CounterServiceTest.Config.class })
+class CounterServiceTest {
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private CommentServiceImpl commentService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Post post;
+
+	@BeforeEach
+	void setUp() {
+		Category category = new Category();
+		category.setCategoryTitle("category");
+		category.setCategoryDescription("description");
+		entityManager.persist(category);
+
+		User user = new User();
+		user.setName("user");
+		user.setEmail("user@example.com");
+		user.setPassword("secret");
+		user.setAbout("about");
+		entityManager.persist(user);
+
+		post = new Post();
+		post.setTitle("post");
+		post.setContent("content");
+		post.setCategory(category);
+		post.setUser(user);
+		entityManager.persist(post);
+		entityManager.flush();
+		// the fixture bypasses the services
+		counterService.reconcile();
+	}
+
+	@Test
+	void commentsMoveTheCounterOfTheirPost() {
+		CommentDto comment = new CommentDto();
+		comment.setContent("first");
+		CommentDto saved = commentService.createComment(comment, post.getPostId());
+		comment.setContent("second");
+		commentService.createComment(comment, post.getPostId());
+		assertThat(commentCount()).isEqualTo(2);
+
+		commentService.deleteComment(saved.getId());
+		entityManager.flush();
+		assertThat(commentCount()).isEqualTo(1);
+		assertThat(counterService.reconcile()).isZero();
+	}
+
+	@Test
+	void reconciliationRepairsDrift() {
+		jdbcTemplate.update("update posts set comment_count = 7 where post_id = ?", post.getPostId());
+
+		assertThat(counterService.reconcile()).isEqualTo(1);
+		assertThat(commentCount()).isZero();
+		assertThat(jdbcTemplate.queryForObject("select post_count from users", Long.class)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select post_count from categories", Long.class)).isEqualTo(1);
+	}
+
+	@Test
+	void savingAnEntityReadsItsCounterBack() {
+		jdbcTemplate.update("update posts set comment_count = 7 where post_id = ?", post.getPostId());
+
+		// the managed instance still holds the old value, a save must not cache that
+		post.setContent("edited");
+		entityManager.flush();
+		assertThat(post.getCommentCount()).isEqualTo(7);
+	}
+
+	private long commentCount() {
+		return jdbcTemplate.queryForObject("select comment_count from posts where post_id = ?", Long.class,
+				post.getPostId());
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.backend.blog.images;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.blog.repositories.PostRepo;
+
+class ContentAddressedImageStoreTest {
+
+	@TempDir
+	Path directory;
+
+	private final PostRepo postRepo = mock(PostRepo.class);
+
+	private ImageVariantService imageVariantService;
+
+	private ContentAddressedImageStore store;
+
+	private byte[] image;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// variants are generated on the test thread instead of the executor
+		imageVariantService = spy(new ImageVariantService());
+		ReflectionTestUtils.setField(imageVariantService, "jpegQuality", 0.8f);
+		ReflectionTestUtils.setField(imageVariantService, "maxPixels", 1_000_000L);
+		doNothing().when(imageVariantService).generateAsync(anyString(), anyString());
+
+		store = new ContentAddressedImageStore();
+		ReflectionTestUtils.setField(store, "enabled", true);
+		ReflectionTestUtils.setField(store, "directory", directory.toString());
+		ReflectionTestUtils.setField(store, "graceMinutes", 60L);
+		ReflectionTestUtils.setField(store, "postRepo", postRepo);
+		ReflectionTestUtils.setField(store, "imageVariantService", imageVariantService);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", out);
+		image = out.toByteArray();
+	}
+
+	@Test
+	void identicalUploadsShareOneBlob() throws Exception {
+		String first = upload(".png");
+		String second = upload(".PNG");
+
+		assertThat(second).isEqualTo(first).matches("[0-9a-f]{64}\\.png");
+		assertThat(Files.list(directory).filter(Files::isRegularFile)).hasSize(1);
+	}
+
+	@Test
+	void unreferencedBlobsPastTheGracePeriodAreCollectedWithTheirVariants() throws Exception {
+		// same bytes under three extensions: three blobs sharing one digest
+		String referenced = upload(".png");
+		String orphan = upload(".gif");
+		String young = upload(".jpeg");
+		Files.write(directory.resolve("legacy-upload.png"), image);
+		age(referenced);
+		age(orphan);
+		age("legacy-upload.png");
+		when(postRepo.findReferencedImageNames()).thenReturn(List.of(referenced));
+
+		store.collectGarbage();
+
+		assertThat(directory.resolve(referenced)).exists();
+		assertThat(directory.resolve(young)).exists();
+		assertThat(directory.resolve("legacy-upload.png")).exists();
+		assertThat(directory.resolve(orphan)).doesNotExist();
+		for (ImageVariant variant : ImageVariant.values()) {
+			assertThat(imageVariantService.resolve(directory.toString(), orphan, variant)).isNull();
+			assertThat(imageVariantService.resolve(directory.toString(), referenced, variant)).isNotNull();
+		}
+	}
+
+	@Test
+	void disabledStoreCollectsNothing() throws Exception {
+		String orphan = upload(".png");
+		age(orphan);
+		when(postRepo.findReferencedImageNames()).thenReturn(List.of());
+		ReflectionTestUtils.setField(store, "enabled", false);
+
+		store.collectGarbage();
+
+		assertThat(directory.resolve(orphan)).exists();
+	}
+
+	private String upload(String extension) throws Exception {
+		String fileName = store.store(directory.toString(), new MockMultipartFile("image", image), extension);
+		imageVariantService.generate(directory.toString(), fileName);
+		return fileName;
+	}
+
+	private void age(String fileName) throws Exception {
+		Files.setLastModifiedTime(directory.resolve(fileName),
+				FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.backend.blog.images;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ImageDeliveryServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private ImageDeliveryService imageDeliveryService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		imageDeliveryService = new ImageDeliveryService();
+		ReflectionTestUtils.setField(imageDeliveryService, "cacheControl", "public, max-age=31536000, immutable");
+		ReflectionTestUtils.setField(imageDeliveryService, "sendfileEnabled", true);
+		Files.write(directory.resolve("banner.png"), "0123456789".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	void servesFullImageWithCachingHeaders() throws Exception {
+		MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/"), "banner.png");
+
+		assertEquals(200, response.getStatus());
+		assertEquals("image/png", response.getContentType());
+		assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+		assertArrayEquals("0123456789".getBytes(StandardCharsets.US_ASCII), response.getContentAsByteArray());
+
+		MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/");
+		conditional.addHeader("If-None-Match", response.getHeader("ETag"));
+		assertEquals(304, get(conditional, "banner.png").getStatus());
+	}
+
+	@Test
+	void servesSingleByteRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader("Range", "bytes=2-5");
+		MockHttpServletResponse response = get(request, "banner.png");
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+		assertEquals("2345", response.getContentAsString());
+
+		MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/");
+		unsatisfiable.addHeader("Range", "bytes=20-");
+		assertEquals(416, get(unsatisfiable, "banner.png").getStatus());
+	}
+
+	@Test
+	void rejectsMissingAndEscapingNames() throws Exception {
+		assertEquals(404, get(new MockHttpServletRequest("GET", "/"), "missing.png").getStatus());
+		assertEquals(404, get(new MockHttpServletRequest("GET", "/"), "../banner.png").getStatus());
+	}
+
+	private MockHttpServletResponse get(MockHttpServletRequest request, String imageName) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		imageDeliveryService.serve(directory.toString(), imageName, request, response);
+		return response;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.backend.blog.images;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ImageVariantServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private ImageVariantService imageVariantService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		imageVariantService = new ImageVariantService();
+		ReflectionTestUtils.setField(imageVariantService, "jpegQuality", 0.8f);
+		ReflectionTestUtils.setField(imageVariantService, "maxPixels", 1_000_000L);
+	}
+
+	@Test
+	void generatesScaledVariants() throws Exception {
+		write("photo.png", 800, 400);
+		assertNull(imageVariantService.resolve(directory.toString(), "photo.png", ImageVariant.THUMB));
+
+		imageVariantService.generate(directory.toString(), "photo.png");
+
+		BufferedImage thumb = ImageIO
+				.read(imageVariantService.resolve(directory.toString(), "photo.png", ImageVariant.THUMB).toFile());
+		assertEquals(160, thumb.getWidth());
+		assertEquals(80, thumb.getHeight());
+		BufferedImage medium = ImageIO
+				.read(imageVariantService.resolve(directory.toString(), "photo.png", ImageVariant.MEDIUM).toFile());
+		assertEquals(640, medium.getWidth());
+	}
+
+	@Test
+	void smallImagesAreNotUpscaled() throws Exception {
+		write("icon.png", 100, 50);
+
+		imageVariantService.generate(directory.toString(), "icon.png");
+
+		BufferedImage medium = ImageIO
+				.read(imageVariantService.resolve(directory.toString(), "icon.png", ImageVariant.MEDIUM).toFile());
+		assertEquals(100, medium.getWidth());
+	}
+
+	@Test
+	void imagesOverThePixelLimitAreNotDecoded() throws Exception {
+		write("huge.png", 2000, 1000);
+
+		imageVariantService.generate(directory.toString(), "huge.png");
+
+		assertNull(imageVariantService.resolve(directory.toString(), "huge.png", ImageVariant.THUMB));
+		assertNull(imageVariantService.resolve(directory.toString(), "huge.png", ImageVariant.MEDIUM));
+	}
+
+	@Test
+	void unreadableFilesAreIgnored() throws Exception {
+		Files.writeString(directory.resolve("notes.png"), "not an image");
+
+		imageVariantService.generate(directory.toString(), "notes.png");
+
+		assertNull(imageVariantService.resolve(directory.toString(), "notes.png", ImageVariant.THUMB));
+	}
+
+	private void write(String name, int width, int height) throws Exception {
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", directory.resolve(name).toFile());
+	}
+
+}
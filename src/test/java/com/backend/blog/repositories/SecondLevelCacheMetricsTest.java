@@ -0,0 +1,78 @@
+package com.backend.blog.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.orm.jpa.HibernateMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.blog.entities.Category;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(HibernateMetricsAutoConfiguration.class)
+@Import(SecondLevelCacheMetricsTest.Config.class)
+// read-write regions are filled when the inserting transaction commits
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheMetricsTest {
+
+	private static final String REGION = "com.backend.blog.entities.Category";
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private CategoryRepo categoryRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void cachedFindByIdIsReportedAsAHit() {
+		Category category = new Category();
+		category.setCategoryTitle("Metrics");
+		category.setCategoryDescription("second level cache");
+		Integer id = categoryRepo.save(category).getCategoryId();
+		// the entry written on insert is not readable by a transaction started in the same instant
+		categoryRepo.findById(id);
+		double hitsBefore = hits();
+
+		// runs in its own persistence context, so the entity comes from the second level cache
+		assertThat(categoryRepo.findById(id)).isPresent();
+
+		assertThat(hits()).isEqualTo(hitsBefore + 1);
+		categoryRepo.deleteById(id);
+	}
+
+	private double hits() {
+		return meterRegistry.get("hibernate.second.level.cache.requests").tag("region", REGION).tag("result", "hit")
+				.functionCounter().count();
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.backend.blog.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.backend.blog.entities.Post;
+
+class PostSearchIndexTest {
+
+	private PostSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostSearchIndex();
+	}
+
+	@Test
+	void titleHitOutranksContentHit() {
+		index(1, "Cooking pasta", "a short note about java");
+		index(2, "Java streams", "collectors and grouping");
+
+		assertThat(index.search("java", 0, 10).getPostIds()).containsExactly(2, 1);
+	}
+
+	@Test
+	void rarerTermsWeighMore() {
+		// same length everywhere, so only term frequency and idf decide
+		index(1, "one", "java alpha");
+		index(2, "two", "java beta");
+		index(3, "three", "java kotlin");
+		index(4, "four", "kotlin gamma");
+
+		assertThat(index.search("java kotlin", 0, 10).getPostIds()).containsExactly(3, 4, 1, 2);
+	}
+
+	@Test
+	void shorterDocumentRanksHigherForTheSameHit() {
+		index(1, "notes", "rust ownership explained with many more words around it");
+		index(2, "notes", "rust ownership");
+
+		assertThat(index.search("ownership", 0, 10).getPostIds()).containsExactly(2, 1);
+	}
+
+	@Test
+	void hitsArePaged() {
+		for (int postId = 1; postId <= 3; postId++) {
+			index(postId, "paging " + postId, "same words");
+		}
+
+		PostSearchIndex.SearchHits first = index.search("paging", 0, 2);
+		PostSearchIndex.SearchHits second = index.search("paging", 1, 2);
+
+		assertThat(first.getTotalHits()).isEqualTo(3);
+		assertThat(first.getPostIds()).hasSize(2);
+		assertThat(second.getPostIds()).hasSize(1).doesNotContainAnyElementsOf(first.getPostIds());
+		assertThat(index.search("paging", Integer.MAX_VALUE, 2).getPostIds()).isEmpty();
+	}
+
+	@Test
+	void invalidPagingIsRejected() {
+		index(1, "paging", "content");
+
+		assertThatThrownBy(() -> index.search("paging", 0, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> index.search("paging", -1, 10)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void updatesAndRemovalsReplaceOldTerms() {
+		index(1, "Draft title", "first version");
+		index(1, "Final title", "second version");
+
+		assertThat(index.search("draft", 0, 10).getPostIds()).isEmpty();
+		assertThat(index.search("final", 0, 10).getPostIds()).containsExactly(1);
+
+		index.remove(1);
+
+		assertThat(index.search("final", 0, 10).getTotalHits()).isZero();
+	}
+
+	@Test
+	void queryOfOnlyStopWordsFindsNothing() {
+		index(1, "The end", "and then there was this");
+
+		assertThat(index.search("the and", 0, 10).getTotalHits()).isZero();
+	}
+
+	private void index(int postId, String title, String content) {
+		Post post = new Post();
+		post.setPostId(postId);
+		post.setTitle(title);
+		post.setContent(content);
+		index.index(post);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.backend.blog.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SearchTokenizerTest {
+
+	@Test
+	void splitsOnAnythingButLettersAndDigits() {
+		assertThat(SearchTokenizer.tokenize("Spring-Boot 2.7: JPA/Hibernate!"))
+				.containsExactly("spring", "boot", "jpa", "hibernate");
+	}
+
+	@Test
+	void dropsStopWordsAndSingleCharacters() {
+		assertThat(SearchTokenizer.tokenize("The state of a JVM is x")).containsExactly("state", "jvm");
+	}
+
+	@Test
+	void keepsDigitsAndNonAsciiLetters() {
+		assertThat(SearchTokenizer.tokenize("HTTP2 über Café")).containsExactly("http2", "über", "café");
+	}
+
+	@Test
+	void emptyInputHasNoTerms() {
+		assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+		assertThat(SearchTokenizer.tokenize("  ")).isEmpty();
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.backend.blog.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.blog.exceptions.ServiceBusyException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedBCryptPasswordEncoderTest {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private PasswordHashingExecutor executor;
+
+	private BoundedBCryptPasswordEncoder encoder;
+
+	@BeforeEach
+	void setUp() {
+		executor = new PasswordHashingExecutor();
+		ReflectionTestUtils.setField(executor, "threads", 1);
+		ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+		ReflectionTestUtils.setField(executor, "timeoutMs", 5000L);
+		ReflectionTestUtils.setField(executor, "meterRegistry", meterRegistry);
+		executor.initExecutor();
+		encoder = new BoundedBCryptPasswordEncoder(5, executor, meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void hashesOnThePoolAndRecordsLatency() {
+		String hash = encoder.encode("secret");
+
+		assertThat(hash).startsWith("$2a$05$");
+		assertThat(encoder.matches("secret", hash)).isTrue();
+		assertThat(encoder.matches("wrong", hash)).isFalse();
+		assertThat(meterRegistry.get("security.password.hash").tag("operation", "matches").timer().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	void hashesWithAnotherCostAreUpgraded() {
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isTrue();
+		assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+		assertThat(encoder.upgradeEncoding("{noop}secret")).isFalse();
+	}
+
+	@Test
+	void saturatedPoolFailsFast() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		// one task running, one queued: the pool is full
+		CompletableFuture<Object> running = executor.submit(() -> await(release));
+		CompletableFuture<Object> queued = executor.submit(() -> await(release));
+
+		assertThatThrownBy(() -> encoder.encode("secret")).isInstanceOf(ServiceBusyException.class);
+		assertThat(meterRegistry.get("security.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+		release.countDown();
+		running.get();
+		queued.get();
+	}
+
+	@Test
+	void timedOutTaskIsNotRunLater() throws Exception {
+		ReflectionTestUtils.setField(executor, "timeoutMs", 200L);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> running = executor.submit(() -> await(release));
+		AtomicBoolean ran = new AtomicBoolean();
+
+		assertThatThrownBy(() -> executor.call(() -> ran.getAndSet(true)))
+				.isInstanceOf(ServiceBusyException.class);
+
+		release.countDown();
+		running.get();
+		// queued behind the cancelled task, so that one has been dealt with once this completes
+		executor.submit(() -> null).get();
+		assertThat(ran).isFalse();
+	}
+
+	private static Object await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.backend.blog.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.blog.entities.Role;
+import com.backend.blog.entities.User;
+import com.backend.blog.security.tokens.InMemoryTokenRevocationStore;
+import com.backend.blog.security.tokens.RefreshTokenService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtAuthenticationFilterTest {
+
+	private final PrincipalCache principalCache = mock(PrincipalCache.class);
+
+	private JwtTokenHelper jwtTokenHelper;
+
+	private JwtAuthenticationFilter filter;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenHelper = new JwtTokenHelper();
+		ReflectionTestUtils.setField(jwtTokenHelper, "secret",
+				"c3i/GvtInhEUtFDl+RhZ2AYa8cyE+hlnobbbdWEaeO/Y57OwKyWc+uiV0L9YxczYNqzt9TEoD4sNU7HBNQAjlQ==");
+		ReflectionTestUtils.setField(jwtTokenHelper, "accessTokenValidity", 60L);
+		ReflectionTestUtils.setField(jwtTokenHelper, "refreshTokenValidity", 600L);
+		ReflectionTestUtils.setField(jwtTokenHelper, "verifiedTokenCacheSize", 100L);
+		jwtTokenHelper.init();
+
+		Role role = new Role();
+		role.setId(501);
+		role.setName("ROLE_ADMIN");
+		user = new User();
+		user.setId(7);
+		user.setEmail("admin@example.com");
+		user.setRoles(Set.of(role));
+		when(principalCache.get("admin@example.com")).thenReturn(user);
+
+		filter = new JwtAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+		ReflectionTestUtils.setField(filter, "jwtTokenHelper", jwtTokenHelper);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void statelessModeBuildsThePrincipalFromTheClaims() throws Exception {
+		ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+
+		Authentication authentication = authenticate(jwtTokenHelper.generateToken(user));
+
+		assertThat(authentication.getPrincipal()).isInstanceOf(JwtPrincipal.class);
+		assertThat(((JwtPrincipal) authentication.getPrincipal()).getId()).isEqualTo(7);
+		assertThat(authentication.getName()).isEqualTo("admin@example.com");
+		assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+		verify(principalCache, never()).get(anyString());
+	}
+
+	@Test
+	void defaultModeUsesTheCachedUser() throws Exception {
+		Authentication authentication = authenticate(jwtTokenHelper.generateToken(user));
+
+		assertThat(authentication.getPrincipal()).isSameAs(user);
+		assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+	}
+
+	@Test
+	void refreshTokensDoNotAuthenticate() throws Exception {
+		RefreshTokenService refreshTokenService = new RefreshTokenService();
+		ReflectionTestUtils.setField(refreshTokenService, "jwtTokenHelper", jwtTokenHelper);
+		ReflectionTestUtils.setField(refreshTokenService, "revocationStore", new InMemoryTokenRevocationStore());
+		ReflectionTestUtils.setField(refreshTokenService, "meterRegistry", new SimpleMeterRegistry());
+
+		assertThat(authenticate(refreshTokenService.issue(user).getRefreshToken())).isNull();
+	}
+
+	private Authentication authenticate(String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+}
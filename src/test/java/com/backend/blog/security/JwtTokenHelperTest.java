@@ -0,0 +1,32 @@
+package com.backend.blog.security;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtTokenHelperTest {
+
+	@Test
+	void missingOrShortSecretFailsStartup() {
+		assertThatThrownBy(() -> withSecret(null).init()).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> withSecret("jwtTokenKey").init()).isInstanceOf(IllegalStateException.class);
+		// 63 bytes, one short of the HS512 output size
+		assertThatThrownBy(() -> withSecret("A".repeat(84)).init()).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void secretOfSixtyFourBytesIsAccepted() {
+		assertThatCode(() -> withSecret("A".repeat(88)).init()).doesNotThrowAnyException();
+	}
+
+	private JwtTokenHelper withSecret(String secret) {
+		JwtTokenHelper jwtTokenHelper = new JwtTokenHelper();
+		ReflectionTestUtils.setField(jwtTokenHelper, "secret", secret);
+		ReflectionTestUtils.setField(jwtTokenHelper, "accessTokenValidity", 60L);
+		ReflectionTestUtils.setField(jwtTokenHelper, "verifiedTokenCacheSize", 100L);
+		return jwtTokenHelper;
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.backend.blog.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.blog.entities.Role;
+import com.backend.blog.entities.User;
+import com.backend.blog.exceptions.ResourceNotFoundException;
+
+class PrincipalCacheTest {
+
+	private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+
+	private PrincipalCache principalCache;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		principalCache = new PrincipalCache();
+		ReflectionTestUtils.setField(principalCache, "maxSize", 100L);
+		ReflectionTestUtils.setField(principalCache, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(principalCache, "userDetailsService", userDetailsService);
+		principalCache.initCache();
+
+		Role role = new Role();
+		role.setId(502);
+		role.setName("ROLE_NORMAL");
+		user = new User();
+		user.setId(7);
+		user.setEmail("reader@example.com");
+		user.setRoles(Set.of(role));
+		when(userDetailsService.loadUserByUsername("reader@example.com")).thenReturn(user);
+	}
+
+	@Test
+	void cachesAnImmutableSnapshotOfTheUser() {
+		UserDetails principal = principalCache.get("reader@example.com");
+
+		assertThat(principal).isInstanceOf(JwtPrincipal.class);
+		assertThat(((JwtPrincipal) principal).getId()).isEqualTo(7);
+		assertThat(principal.getUsername()).isEqualTo("reader@example.com");
+		assertThat(principal.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+				.containsExactly("ROLE_NORMAL");
+
+		// a later change to the entity does not leak into the cached principal
+		user.setEmail("changed@example.com");
+		user.setRoles(Set.of());
+		UserDetails cached = principalCache.get("Reader@Example.com");
+		assertThat(cached).isSameAs(principal);
+		assertThat(cached.getUsername()).isEqualTo("reader@example.com");
+		assertThat(cached.getAuthorities()).hasSize(1);
+		verify(userDetailsService, times(1)).loadUserByUsername("reader@example.com");
+	}
+
+	@Test
+	void invalidateForcesAReload() {
+		UserDetails before = principalCache.get("reader@example.com");
+
+		principalCache.invalidate("READER@example.com");
+		UserDetails after = principalCache.get("reader@example.com");
+
+		assertThat(after).isNotSameAs(before);
+		verify(userDetailsService, times(2)).loadUserByUsername("reader@example.com");
+	}
+
+	@Test
+	void concurrentMissesLoadOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		when(userDetailsService.loadUserByUsername("reader@example.com")).thenAnswer(invocation -> {
+			loading.await(5, TimeUnit.SECONDS);
+			return user;
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<UserDetails>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> principalCache.get("reader@example.com")));
+			}
+			Thread.sleep(200);
+			loading.countDown();
+			UserDetails first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<UserDetails> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(userDetailsService, times(1)).loadUserByUsername("reader@example.com");
+	}
+
+	@Test
+	void unknownUserIsNotCachedAndFailsUnwrapped() {
+		when(userDetailsService.loadUserByUsername("gone@example.com"))
+				.thenThrow(new ResourceNotFoundException("User ", " email : gone@example.com", 0));
+
+		assertThatThrownBy(() -> principalCache.get("gone@example.com"))
+				.isInstanceOf(ResourceNotFoundException.class);
+		assertThatThrownBy(() -> principalCache.get("gone@example.com"))
+				.isInstanceOf(ResourceNotFoundException.class);
+		verify(userDetailsService, times(2)).loadUserByUsername("gone@example.com");
+	}
+
+}
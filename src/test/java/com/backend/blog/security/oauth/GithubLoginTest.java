@@ -0,0 +1,179 @@
+package com.backend.blog.security.oauth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.config.AppConstants;
+import com.backend.blog.config.HttpClientConfig;
+import com.backend.blog.entities.AuthProvider;
+import com.backend.blog.entities.User;
+import com.backend.blog.repositories.UserRepo;
+import com.backend.blog.security.PrincipalCache;
+import com.backend.blog.security.UserPrincipal;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// a local HttpServer stands in for the GitHub user and email APIs
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(RestTemplateAutoConfiguration.class)
+@Import({ CustomOAuth2UserService.class, HttpClientConfig.class, GithubLoginTest.Config.class })
+class GithubLoginTest {
+
+	private static final AtomicInteger EMAIL_REQUESTS = new AtomicInteger();
+
+	private static HttpServer github;
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder(4);
+		}
+	}
+
+	@BeforeAll
+	static void startGithub() throws IOException {
+		github = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		// private email: the user endpoint has none, the emails endpoint lists the primary one
+		github.createContext("/user", exchange -> respond(exchange,
+				"{\"id\": 4242, \"login\": \"octo\", \"name\": null, \"email\": null}"));
+		// slower than the read timeout below
+		github.createContext("/slow/user", exchange -> {
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			respond(exchange, "{\"id\": 4243, \"login\": \"slow\", \"email\": \"slow@example.com\"}");
+		});
+		github.createContext("/user/emails", exchange -> {
+			EMAIL_REQUESTS.incrementAndGet();
+			respond(exchange, "[{\"email\": \"octo@users.noreply.github.com\", \"primary\": false},"
+					+ " {\"email\": \"octo@example.com\", \"primary\": true}]");
+		});
+		github.start();
+	}
+
+	@AfterAll
+	static void stopGithub() {
+		github.stop(0);
+	}
+
+	@DynamicPropertySource
+	static void githubProperties(DynamicPropertyRegistry registry) {
+		registry.add("oauth2.github.emailsUri", () -> baseUrl() + "/user/emails");
+		registry.add("http.client.readTimeoutMs", () -> "500");
+	}
+
+	@MockBean
+	private PrincipalCache principalCache;
+
+	@MockBean
+	private BloomFilterService bloomFilterService;
+
+	@Autowired
+	private CustomOAuth2UserService customOAuth2UserService;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// the role row may be gone when another test context dropped the schema
+	@BeforeEach
+	void ensureDefaultRole() {
+		jdbcTemplate.update("merge into role (id, name) key (id) values (?, ?)", AppConstants.NORMAL_USER,
+				"ROLE_NORMAL");
+	}
+
+	@Test
+	void privateEmailIsLookedUpOnceAndCached() {
+		UserPrincipal first = (UserPrincipal) customOAuth2UserService.loadUser(userRequest());
+		UserPrincipal second = (UserPrincipal) customOAuth2UserService.loadUser(userRequest());
+
+		assertThat(first.getUsername()).isEqualTo("octo@example.com");
+		assertThat(second.getUser().getId()).isEqualTo(first.getUser().getId());
+		assertThat(EMAIL_REQUESTS.get()).isEqualTo(1);
+
+		User user = userRepo.findByEmail("octo@example.com").orElseThrow();
+		assertThat(user.getProvider()).isEqualTo(AuthProvider.GITHUB);
+		assertThat(user.getProviderId()).isEqualTo("4242");
+		assertThat(user.getName()).isEqualTo("octo");
+	}
+
+	@Test
+	void userInfoCallUsesThePooledClientTimeouts() {
+		long start = System.nanoTime();
+
+		assertThatThrownBy(() -> customOAuth2UserService.loadUser(userRequest("/slow/user")))
+				.isInstanceOf(OAuth2AuthenticationException.class);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+	}
+
+	private static OAuth2UserRequest userRequest() {
+		return userRequest("/user");
+	}
+
+	private static OAuth2UserRequest userRequest(String userInfoPath) {
+		ClientRegistration registration = ClientRegistration.withRegistrationId("github").clientId("client")
+				.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+				.redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+				.authorizationUri(baseUrl() + "/login/oauth/authorize").tokenUri(baseUrl() + "/login/oauth/access_token")
+				.userInfoUri(baseUrl() + userInfoPath).userNameAttributeName("id").build();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "token",
+				Instant.now(), Instant.now().plusSeconds(60));
+		return new OAuth2UserRequest(registration, accessToken);
+	}
+
+	private static String baseUrl() {
+		return "http://127.0.0.1:" + github.getAddress().getPort();
+	}
+
+	private static void respond(HttpExchange exchange, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.backend.blog.security.tokens;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest(properties = "jwt.revocation.store=database")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ DatabaseTokenRevocationStore.class, DatabaseTokenRevocationStoreTest.Config.class })
+class DatabaseTokenRevocationStoreTest {
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+	}
+
+	@Autowired
+	private TokenRevocationStore store;
+
+	@Test
+	void spendsEachTokenIdOnce() {
+		Instant expiresAt = Instant.now().plusSeconds(600);
+
+		assertThat(store.markUsed("a", expiresAt)).isTrue();
+		assertThat(store.markUsed("a", expiresAt)).isFalse();
+		assertThat(store.markUsed("b", expiresAt)).isTrue();
+	}
+
+	@Test
+	void revokedFamiliesExpire() {
+		store.revokeFamily("live", Instant.now().plusSeconds(600));
+		store.revokeFamily("live", Instant.now().plusSeconds(60));
+		store.revokeFamily("gone", Instant.now().minusSeconds(1));
+		store.markUsed("spent", Instant.now().minusSeconds(1));
+
+		assertThat(store.isFamilyRevoked("live")).isTrue();
+		assertThat(store.isFamilyRevoked("gone")).isFalse();
+		assertThat(store.isFamilyRevoked("other")).isFalse();
+		assertThat(store.purgeExpired()).isEqualTo(2);
+		assertThat(store.isFamilyRevoked("live")).isTrue();
+	}
+
+}
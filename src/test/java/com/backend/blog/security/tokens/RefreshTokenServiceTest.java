@@ -0,0 +1,110 @@
+package com.backend.blog.security.tokens;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.blog.entities.Role;
+import com.backend.blog.entities.User;
+import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.payloads.JwtAuthResponse;
+import com.backend.blog.security.JwtTokenHelper;
+import com.backend.blog.security.PrincipalCache;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RefreshTokenServiceTest {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private JwtTokenHelper jwtTokenHelper;
+
+	private RefreshTokenService refreshTokenService;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenHelper = new JwtTokenHelper();
+		ReflectionTestUtils.setField(jwtTokenHelper, "secret",
+				"c3i/GvtInhEUtFDl+RhZ2AYa8cyE+hlnobbbdWEaeO/Y57OwKyWc+uiV0L9YxczYNqzt9TEoD4sNU7HBNQAjlQ==");
+		ReflectionTestUtils.setField(jwtTokenHelper, "accessTokenValidity", 60L);
+		ReflectionTestUtils.setField(jwtTokenHelper, "refreshTokenValidity", 600L);
+		ReflectionTestUtils.setField(jwtTokenHelper, "verifiedTokenCacheSize", 100L);
+		jwtTokenHelper.init();
+
+		Role role = new Role();
+		role.setId(502);
+		role.setName("ROLE_NORMAL");
+		user = new User();
+		user.setEmail("reader@example.com");
+		user.setRoles(Set.of(role));
+		PrincipalCache principalCache = mock(PrincipalCache.class);
+		when(principalCache.get("reader@example.com")).thenReturn(user);
+
+		refreshTokenService = new RefreshTokenService();
+		ReflectionTestUtils.setField(refreshTokenService, "jwtTokenHelper", jwtTokenHelper);
+		ReflectionTestUtils.setField(refreshTokenService, "revocationStore", new InMemoryTokenRevocationStore());
+		ReflectionTestUtils.setField(refreshTokenService, "principalCache", principalCache);
+		ReflectionTestUtils.setField(refreshTokenService, "meterRegistry", meterRegistry);
+	}
+
+	@Test
+	void accessTokensCarryTheRolesAndRefreshTokensRotate() {
+		JwtAuthResponse login = refreshTokenService.issue(user);
+
+		Claims access = jwtTokenHelper.getVerifiedClaims(login.getToken());
+		assertThat(jwtTokenHelper.isAccessToken(access)).isTrue();
+		assertThat(jwtTokenHelper.getAuthorities(access)).extracting("authority").containsExactly("ROLE_NORMAL");
+
+		JwtAuthResponse refreshed = refreshTokenService.refresh(login.getRefreshToken());
+		assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+		assertThat(jwtTokenHelper.getRefreshClaims(refreshed.getRefreshToken()).get(JwtTokenHelper.CLAIM_FAMILY))
+				.isEqualTo(jwtTokenHelper.getRefreshClaims(login.getRefreshToken()).get(JwtTokenHelper.CLAIM_FAMILY));
+		assertThat(refreshTokenService.refresh(refreshed.getRefreshToken()).getToken()).isNotBlank();
+	}
+
+	@Test
+	void reusedRefreshTokenRevokesTheWholeFamily() {
+		JwtAuthResponse login = refreshTokenService.issue(user);
+		JwtAuthResponse refreshed = refreshTokenService.refresh(login.getRefreshToken());
+
+		assertThatThrownBy(() -> refreshTokenService.refresh(login.getRefreshToken()))
+				.isInstanceOf(ApiException.class);
+		// the legitimate looking successor is gone too
+		assertThatThrownBy(() -> refreshTokenService.refresh(refreshed.getRefreshToken()))
+				.isInstanceOf(ApiException.class);
+		assertThat(meterRegistry.get("security.refresh").tag("result", "reused").counter().count()).isEqualTo(1);
+
+		// other logins are unaffected
+		assertThat(refreshTokenService.refresh(refreshTokenService.issue(user).getRefreshToken())).isNotNull();
+	}
+
+	@Test
+	void tokenTypesAreNotInterchangeable() {
+		JwtAuthResponse login = refreshTokenService.issue(user);
+
+		assertThatThrownBy(() -> refreshTokenService.refresh(login.getToken())).isInstanceOf(ApiException.class);
+		assertThat(jwtTokenHelper.isAccessToken(jwtTokenHelper.getVerifiedClaims(login.getRefreshToken()))).isFalse();
+	}
+
+	@Test
+	void logoutRevokesTheFamily() {
+		JwtAuthResponse login = refreshTokenService.issue(user);
+
+		refreshTokenService.revoke(login.getRefreshToken());
+
+		assertThatThrownBy(() -> refreshTokenService.refresh(login.getRefreshToken()))
+				.isInstanceOf(ApiException.class);
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.backend.blog.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.bloom.InMemoryBloomChangeBus;
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.entities.Category;
+import com.backend.blog.entities.User;
+import com.backend.blog.payloads.PostImportReport;
+import com.backend.blog.search.PostSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = "post.import.batchSize=2")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ PostImportServiceImpl.class, BloomFilterService.class, InMemoryBloomChangeBus.class, PostSearchIndex.class,
+		CounterService.class, PostImportServiceTest.Config.class })
+class PostImportServiceTest {
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return new ObjectMapper();
+		}
+	}
+
+	@Autowired
+	private PostImportServiceImpl postImportService;
+
+	@Autowired
+	private BloomFilterService bloomFilterService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+
+	private Category category;
+
+	@BeforeEach
+	void setUp() {
+		category = new Category();
+		category.setCategoryTitle("imported");
+		category.setCategoryDescription("imported posts");
+		entityManager.persist(category);
+
+		user = new User();
+		user.setName("importer");
+		user.setEmail("importer@example.com");
+		user.setPassword("secret");
+		user.setAbout("about");
+		entityManager.persist(user);
+		entityManager.flush();
+
+		jdbcTemplate.update("insert into posts (post_title, content) values ('Existing', 'content')");
+		bloomFilterService.recordPostTitle("Existing");
+	}
+
+	@Test
+	void importsValidLinesAndReportsTheRest() throws IOException {
+		String ndjson = String.join("\n",
+				line("First"),
+				line("first"),
+				"{not json",
+				"{\"title\":\"Orphan\",\"userId\":" + (user.getId() + 100) + ",\"categoryId\":" + category.getCategoryId() + "}",
+				line("Existing"),
+				"",
+				line("Second"));
+
+		PostImportReport report = postImportService
+				.importPosts(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(report.getReceived()).isEqualTo(6);
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getFailed()).isEqualTo(4);
+		assertThat(report.getErrors()).extracting("line").containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from posts where post_title in ('First', 'Second')",
+				Long.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select post_count from users where id = ?", Long.class, user.getId()))
+				.isEqualTo(2);
+		assertThat(bloomFilterService.isPostTitleProbablyUsed("second")).isTrue();
+	}
+
+	private String line(String title) {
+		return "{\"title\":\"" + title + "\",\"content\":\"imported\",\"userId\":" + user.getId() + ",\"categoryId\":"
+				+ category.getCategoryId() + "}";
+	}
+
+}
@@ -0,0 +1,181 @@
+package com.backend.blog.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.bloom.InMemoryBloomChangeBus;
+import com.backend.blog.config.AppConstants;
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.entities.Category;
+import com.backend.blog.entities.Comment;
+import com.backend.blog.entities.Post;
+import com.backend.blog.entities.Role;
+import com.backend.blog.entities.User;
+import com.backend.blog.exceptions.ApiException;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.payloads.PostDto;
+import com.backend.blog.payloads.PostResponse;
+import com.backend.blog.search.PostSearchIndex;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ PostServiceImpl.class, BloomFilterService.class, InMemoryBloomChangeBus.class, PostSearchIndex.class,
+		CounterService.class, DtoMapper.class, PostListingStatementCountTest.Config.class })
+class PostListingStatementCountTest {
+
+	// a page of posts with its categories, authors, roles and comments
+	private static final long MAX_STATEMENTS_PER_PAGE = 4;
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private PostServiceImpl postService;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		// the cache manager is shared by every test context in the jvm, entries may point at a dropped schema
+		entityManagerFactory.getCache().evictAll();
+
+		Role role = entityManager.find(Role.class, AppConstants.NORMAL_USER);
+		if (role == null) {
+			role = new Role();
+			role.setId(AppConstants.NORMAL_USER);
+			role.setName("ROLE_NORMAL");
+			entityManager.persist(role);
+		}
+
+		for (int i = 0; i < 10; i++) {
+			Category category = new Category();
+			category.setCategoryTitle("category " + i);
+			category.setCategoryDescription("description " + i);
+			entityManager.persist(category);
+
+			User user = new User();
+			user.setName("user " + i);
+			user.setEmail("user" + i + "@example.com");
+			user.setPassword("secret");
+			user.setAbout("about");
+			user.getRoles().add(role);
+			entityManager.persist(user);
+
+			Post post = new Post();
+			post.setTitle("post " + i);
+			post.setContent("content " + i);
+			post.setAddedDate(new Date());
+			post.setCategory(category);
+			post.setUser(user);
+			entityManager.persist(post);
+
+			for (int c = 0; c < 5; c++) {
+				Comment comment = new Comment();
+				comment.setContent("comment " + c);
+				comment.setPost(post);
+				entityManager.persist(comment);
+			}
+		}
+		entityManager.flush();
+		// the fixture bypasses the services, fill the counters the way the nightly repair would
+		counterService.reconcile();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+	}
+
+	@Test
+	void pageOfPostsIsLoadedWithBoundedStatements() {
+		PostResponse response = postService.getAllPost(0, 10, AppConstants.SORT_BY, AppConstants.SORT_DIR);
+
+		assertThat(response.getContent()).hasSize(10);
+		assertThat(response.getContent()).allSatisfy(post -> {
+			assertThat(post.getCategory()).isNotNull();
+			assertThat(post.getUser().getRoles()).hasSize(1);
+			// preview of the first three, the count still covers all five
+			assertThat(post.getComments()).extracting("content").containsExactly("comment 0", "comment 1", "comment 2");
+			assertThat(post.getCommentCount()).isEqualTo(5);
+		});
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+	}
+
+	@Test
+	void cursorPageOfPostsIsLoadedWithBoundedStatements() {
+		PostResponse response = postService.getAllPostAfter("", 10, "title", "desc");
+
+		assertThat(response.getContent()).hasSize(10);
+		// no count query in cursor mode
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE - 1);
+	}
+
+	@Test
+	void badCursorPageSizesAreRejected() {
+		assertThatThrownBy(() -> postService.getAllPostAfter("", 0, "title", "desc"))
+				.isInstanceOf(ApiException.class);
+		assertThatThrownBy(() -> postService.getAllPostAfter("", -5, "title", "desc"))
+				.isInstanceOf(ApiException.class);
+		assertThatThrownBy(() -> postService.getAllPostAfter("", 101, "title", "desc"))
+				.isInstanceOf(ApiException.class);
+	}
+
+	@Test
+	void postsByCategoryAreLoadedWithBoundedStatements() {
+		Integer categoryId = entityManager
+				.createQuery("select c.categoryId from Category c order by c.categoryId", Integer.class)
+				.setMaxResults(1).getSingleResult();
+		statistics.clear();
+
+		List<PostDto> posts = postService.getPostsByCategory(categoryId);
+
+		assertThat(posts).hasSize(1);
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.backend.blog.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.blog.bloom.BloomFilterService;
+import com.backend.blog.bloom.InMemoryBloomChangeBus;
+import com.backend.blog.counters.CounterService;
+import com.backend.blog.mappers.DtoMapper;
+import com.backend.blog.payloads.PostDto;
+import com.backend.blog.search.PostSearchIndex;
+import com.backend.blog.security.CustomUserDetailService;
+import com.backend.blog.security.PrincipalCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// the services open their own transactions here, so commit and rollback really happen
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ PostServiceImpl.class, BloomFilterService.class, InMemoryBloomChangeBus.class, PostSearchIndex.class,
+		CounterService.class, DtoMapper.class, UserServiceImpl.class, CategoryServiceImpl.class, PrincipalCache.class,
+		CustomUserDetailService.class, PostSideEffectsAfterCommitTest.Config.class })
+class PostSideEffectsAfterCommitTest {
+
+	private static final int USER_ID = 9101;
+	private static final int CATEGORY_ID = 9101;
+	private static final String TITLE = "Zebra crossing etiquette";
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private PostServiceImpl postService;
+
+	@Autowired
+	private UserServiceImpl userService;
+
+	@Autowired
+	private CategoryServiceImpl categoryService;
+
+	@Autowired
+	private BloomFilterService bloomFilterService;
+
+	@Autowired
+	private PostSearchIndex postSearchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("insert into users (id, user_name, email, password, about, email_verified) "
+				+ "values (?, 'author', 'author@example.com', 'secret', 'about', false)", USER_ID);
+		jdbcTemplate.update("insert into categories (category_id, title, description) values (?, 'c', 'd')",
+				CATEGORY_ID);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from posts where user_id = ?", USER_ID);
+		jdbcTemplate.update("delete from categories where category_id = ?", CATEGORY_ID);
+		jdbcTemplate.update("delete from users where id = ?", USER_ID);
+	}
+
+	@Test
+	void rolledBackDeleteKeepsTheFilterAndIndex() {
+		PostDto postDto = new PostDto();
+		postDto.setTitle(TITLE);
+		postDto.setContent("wait for the light");
+		Integer postId = postService.createPost(postDto, USER_ID, CATEGORY_ID).getPostId();
+
+		assertThat(bloomFilterService.isPostTitleProbablyUsed(TITLE)).isTrue();
+		assertThat(postSearchIndex.search("zebra", 0, 10).getPostIds()).containsExactly(postId);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			postService.deletePost(postId);
+			status.setRollbackOnly();
+		});
+
+		// the post is still there, so is everything pointing at it
+		assertThat(bloomFilterService.isPostTitleUsed(TITLE)).isTrue();
+		assertThat(postSearchIndex.search("zebra", 0, 10).getPostIds()).containsExactly(postId);
+
+		postService.deletePost(postId);
+
+		assertThat(bloomFilterService.isPostTitleProbablyUsed(TITLE)).isFalse();
+		assertThat(postSearchIndex.search("zebra", 0, 10).getPostIds()).isEmpty();
+	}
+
+	@Test
+	void deletingTheAuthorDropsTheirPostsFromTheIndexAndFilter() {
+		Integer postId = createPost("Yak shaving rituals");
+		assertThat(postSearchIndex.search("yak", 0, 10).getPostIds()).containsExactly(postId);
+
+		userService.deleteUser(USER_ID);
+
+		assertThat(postSearchIndex.search("yak", 0, 10).getPostIds()).isEmpty();
+		assertThat(bloomFilterService.isPostTitleProbablyUsed("Yak shaving rituals")).isFalse();
+	}
+
+	@Test
+	void deletingTheCategoryDropsItsPostsFromTheIndexAndFilter() {
+		Integer postId = createPost("Quokka selfies");
+		assertThat(postSearchIndex.search("quokka", 0, 10).getPostIds()).containsExactly(postId);
+
+		categoryService.deleteCategory(CATEGORY_ID);
+
+		assertThat(postSearchIndex.search("quokka", 0, 10).getPostIds()).isEmpty();
+		assertThat(bloomFilterService.isPostTitleProbablyUsed("Quokka selfies")).isFalse();
+	}
+
+	private Integer createPost(String title) {
+		PostDto postDto = new PostDto();
+		postDto.setTitle(title);
+		postDto.setContent("wait for the light");
+		return postService.createPost(postDto, USER_ID, CATEGORY_ID).getPostId();
+	}
+
+}